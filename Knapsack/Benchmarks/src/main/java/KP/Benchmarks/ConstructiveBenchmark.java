@@ -0,0 +1,62 @@
+package KP.Benchmarks;
+
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to solve all the instances of a source with each constructive heuristic.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ConstructiveBenchmark {
+
+    @Param({
+        "GA-DEFAULT", "GA-MAXPROFIT", "GA-MAXPROFITWEIGHT", "GA-MINWEIGHT",
+        "Test I/GA-MaxDefault", "Test I/GA-MaxProfit", "Test I/GA-MaxProfitPerWeight", "Test I/GA-MinWeight",
+        "Test II/UniCor", "Test II/UniUncor",
+        "synthetic:20", "synthetic:1000", "synthetic:100000", "synthetic:1000000"
+    })
+    public String source;
+
+    @Param({"DEFAULT", "MIN_WEIGHT", "MAX_PROFIT", "MAX_PROFIT_PER_WEIGHT_UNIT"})
+    public Heuristic heuristic;
+
+    private List<KnapsackProblem> problems;
+    private ConstructiveHeuristic constructive;
+
+    @Setup
+    public void setUp() {
+        problems = Instances.load(source);
+        constructive = new ConstructiveHeuristic(heuristic);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (KnapsackProblem problem : problems) {
+            blackhole.consume(new ConstructiveSolver(problem).solve(constructive));
+        }
+    }
+
+}
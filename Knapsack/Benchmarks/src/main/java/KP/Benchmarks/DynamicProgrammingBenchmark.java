@@ -0,0 +1,61 @@
+package KP.Benchmarks;
+
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import KP.Solvers.Constructive.ConstructiveSolver.DynamicProgramming;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to solve all the instances of a source exactly with
+ * <code>ConstructiveSolver.solve</code>. The synthetic sizes are limited because the cost grows
+ * with the number of items times the capacity.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DynamicProgrammingBenchmark {
+
+    @Param({
+        "GA-DEFAULT", "GA-MAXPROFIT", "GA-MAXPROFITWEIGHT", "GA-MINWEIGHT",
+        "Test I/GA-MaxDefault", "Test I/GA-MaxProfit", "Test I/GA-MaxProfitPerWeight", "Test I/GA-MinWeight",
+        "Test II/UniCor", "Test II/UniUncor",
+        "synthetic:20", "synthetic:200", "synthetic:1000"
+    })
+    public String source;
+
+    @Param({"TABLE", "LINEAR_SPACE"})
+    public DynamicProgramming method;
+
+    private List<KnapsackProblem> problems;
+
+    @Setup
+    public void setUp() {
+        problems = Instances.load(source);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (KnapsackProblem problem : problems) {
+            blackhole.consume(new ConstructiveSolver(problem).solve(method));
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package KP.Benchmarks;
+
+import HERMES.Exceptions.NoSuchFeatureException;
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures <code>ConstructiveSolver.getFeature</code> for every feature name: the first call,
+ * which builds the statistics of the unpacked items, and the following ones.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class FeatureBenchmark {
+
+    @Param({
+        "GA-DEFAULT", "GA-MAXPROFIT", "GA-MAXPROFITWEIGHT", "GA-MINWEIGHT",
+        "Test I/GA-MaxDefault", "Test I/GA-MaxProfit", "Test I/GA-MaxProfitPerWeight", "Test I/GA-MinWeight",
+        "Test II/UniCor", "Test II/UniUncor",
+        "synthetic:20", "synthetic:1000", "synthetic:100000", "synthetic:1000000"
+    })
+    public String source;
+
+    @Param({
+        "NORM_MEAN_WEIGHT", "NORM_MEDIAN_WEIGHT", "NORM_STD_WEIGHT",
+        "NORM_MEAN_PROFIT", "NORM_MEDIAN_PROFIT", "NORM_STD_PROFIT",
+        "LQ_PROFIT", "UQ_PROFIT", "LQ_WEIGHT", "UQ_WEIGHT", "NORM_CORRELATION"
+    })
+    public String feature;
+
+    private List<KnapsackProblem> problems;
+    private ConstructiveSolver[] solvers;
+
+    @Setup
+    public void setUp() throws NoSuchFeatureException {
+        problems = Instances.load(source);
+        solvers = new ConstructiveSolver[problems.size()];
+        for (int i = 0; i < solvers.length; i++) {
+            solvers[i] = new ConstructiveSolver(problems.get(i));
+            solvers[i].getFeature(feature);
+        }
+    }
+
+    @Benchmark
+    public void firstCall(Blackhole blackhole) throws NoSuchFeatureException {
+        for (KnapsackProblem problem : problems) {
+            blackhole.consume(new ConstructiveSolver(problem).getFeature(feature));
+        }
+    }
+
+    @Benchmark
+    public void nextCalls(Blackhole blackhole) throws NoSuchFeatureException {
+        for (ConstructiveSolver solver : solvers) {
+            blackhole.consume(solver.getFeature(feature));
+        }
+    }
+
+}
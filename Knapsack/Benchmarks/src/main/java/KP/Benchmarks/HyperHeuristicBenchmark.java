@@ -0,0 +1,92 @@
+package KP.Benchmarks;
+
+import KP.Item;
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import KP.Solvers.HyperHeuristic.SampleHyperHeuristic;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to solve all the instances of a source with the two hyper-heuristics used by
+ * <code>Run</code>: <code>SampleHyperHeuristic</code> and <code>Run.NGKnapsack</code>.
+ * <p>
+ * <code>Run</code> belongs to the default package, so it cannot be imported; its features,
+ * heuristics and the rule engine are reached through reflection, once, when the benchmark is set
+ * up. The items of the rule engine are created in every invocation, because it changes them.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class HyperHeuristicBenchmark {
+
+    @Param({
+        "GA-DEFAULT", "GA-MAXPROFIT", "GA-MAXPROFITWEIGHT", "GA-MINWEIGHT",
+        "Test I/GA-MaxDefault", "Test I/GA-MaxProfit", "Test I/GA-MaxProfitPerWeight", "Test I/GA-MinWeight",
+        "Test II/UniCor", "Test II/UniUncor",
+        "synthetic:20", "synthetic:1000", "synthetic:10000"
+    })
+    public String source;
+
+    private List<KnapsackProblem> problems;
+    private String[] features, heuristics;
+    private Constructor<?> newKnapsack, newItem;
+    private Method solve;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        Class<?> run, knapsack, item;
+        problems = Instances.load(source);
+        run = Class.forName("Run");
+        knapsack = Class.forName("Run$NGKnapsack");
+        item = Class.forName("Run$NGKnapsack$NGItem");
+        features = (String[]) run.getField("FEATURES").get(null);
+        heuristics = (String[]) run.getField("HEURISTICS").get(null);
+        newKnapsack = knapsack.getConstructor(List.class, double.class);
+        newItem = item.getConstructor(double.class, double.class);
+        solve = knapsack.getMethod("solve");
+    }
+
+    @Benchmark
+    public void sampleHyperHeuristic(Blackhole blackhole) {
+        for (KnapsackProblem problem : problems) {
+            blackhole.consume(new ConstructiveSolver(problem).solve(new SampleHyperHeuristic(features, heuristics)));
+        }
+    }
+
+    @Benchmark
+    public void ngKnapsack(Blackhole blackhole) throws ReflectiveOperationException {
+        Object knapsack;
+        List<Object> items;
+        for (KnapsackProblem problem : problems) {
+            items = new ArrayList<>(problem.getNbItems());
+            for (Item item : problem.getItems()) {
+                items.add(newItem.newInstance(item.getProfit(), (double) item.getWeight()));
+            }
+            knapsack = newKnapsack.newInstance(items, (double) problem.getCapacity());
+            solve.invoke(knapsack);
+            blackhole.consume(knapsack);
+        }
+    }
+
+}
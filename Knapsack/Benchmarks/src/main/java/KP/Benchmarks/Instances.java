@@ -0,0 +1,102 @@
+package KP.Benchmarks;
+
+import KP.KnapsackProblem;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Provides the instances used by the benchmarks.
+ * <p>
+ * A source is either a family of the <code>Instances</code> folder, written as the subfolder and
+ * the prefix of the file names (for example <code>Test II/UniCor</code>, or <code>GA-DEFAULT</code>
+ * for the files in the folder itself), or a synthetic instance, written as
+ * <code>synthetic:n</code>. A synthetic instance has n uncorrelated items with weights and profits
+ * between 1 and 1000 and a capacity of half the total weight, and it is the same in every run.
+ * <p>
+ * @version 1.0
+ */
+public class Instances {
+
+    /**
+     * The families of the <code>Instances</code> folder.
+     */
+    public static final String[] FAMILIES = {
+        "GA-DEFAULT", "GA-MAXPROFIT", "GA-MAXPROFITWEIGHT", "GA-MINWEIGHT",
+        "Test I/GA-MaxDefault", "Test I/GA-MaxProfit", "Test I/GA-MaxProfitPerWeight", "Test I/GA-MinWeight",
+        "Test II/UniCor", "Test II/UniUncor"
+    };
+
+    private Instances() {
+    }
+
+    /**
+     * Returns the folder of the instances (the system property <code>instances.dir</code>, by
+     * default <code>../Instances</code>).
+     * <p>
+     * @return The folder of the instances.
+     */
+    public static String getFolder() {
+        return System.getProperty("instances.dir", "../Instances");
+    }
+
+    /**
+     * Returns the instances of a source.
+     * <p>
+     * @param source The source of the instances.
+     * @return The instances of the source.
+     */
+    public static List<KnapsackProblem> load(String source) {
+        int slash;
+        String folder, prefix;
+        String[] fileNames;
+        List<KnapsackProblem> problems;
+        if (source.startsWith("synthetic:")) {
+            return Arrays.asList(synthetic(Integer.parseInt(source.substring("synthetic:".length()))));
+        }
+        slash = source.lastIndexOf('/');
+        folder = slash < 0 ? getFolder() : getFolder() + "/" + source.substring(0, slash);
+        prefix = source.substring(slash + 1) + "_";
+        fileNames = new File(folder).list();
+        if (fileNames == null) {
+            throw new IllegalArgumentException("The folder \'" + folder + "\' does not exist.");
+        }
+        Arrays.sort(fileNames);
+        problems = new ArrayList<>();
+        for (String fileName : fileNames) {
+            if (fileName.startsWith(prefix)) {
+                problems.add(new KnapsackProblem(folder + "/" + fileName));
+            }
+        }
+        if (problems.isEmpty()) {
+            throw new IllegalArgumentException("The source \'" + source + "\' does not contain instances.");
+        }
+        return problems;
+    }
+
+    /**
+     * Returns a synthetic instance with the number of items provided.
+     * <p>
+     * @param nbItems The number of items.
+     * @return The synthetic instance.
+     */
+    public static KnapsackProblem synthetic(int nbItems) {
+        long total;
+        int[] weights;
+        double[] profits;
+        Random random;
+        random = new Random(nbItems);
+        weights = new int[nbItems];
+        profits = new double[nbItems];
+        total = 0;
+        for (int i = 0; i < nbItems; i++) {
+            weights[i] = 1 + random.nextInt(1000);
+            profits[i] = 1 + random.nextInt(1000);
+            total += weights[i];
+        }
+        return new KnapsackProblem(weights, profits, (int) Math.min(total / 2, Integer.MAX_VALUE), "synthetic_" + nbItems);
+    }
+
+}
@@ -0,0 +1,85 @@
+package KP.Benchmarks;
+
+import KP.IO.BinaryProblemFormat;
+import KP.KnapsackProblem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the time to load all the instances of a source from text files (as written by
+ * <code>KnapsackProblem.save</code>) and from binary files. The files are written to a temporary
+ * folder before the measurements.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ParsingBenchmark {
+
+    @Param({
+        "GA-DEFAULT", "Test I/GA-MaxDefault", "Test II/UniCor", "Test II/UniUncor",
+        "synthetic:1000", "synthetic:100000", "synthetic:1000000"
+    })
+    public String source;
+
+    private File folder;
+    private String[] textFiles, binaryFiles;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<KnapsackProblem> problems;
+        problems = Instances.load(source);
+        folder = Files.createTempDirectory("knapsack").toFile();
+        textFiles = new String[problems.size()];
+        binaryFiles = new String[problems.size()];
+        for (int i = 0; i < textFiles.length; i++) {
+            textFiles[i] = new File(folder, i + ".kp").getPath();
+            binaryFiles[i] = new File(folder, i + ".kpb").getPath();
+            problems.get(i).save(textFiles[i]);
+            BinaryProblemFormat.save(problems.get(i), binaryFiles[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (File file : folder.listFiles()) {
+            file.delete();
+        }
+        folder.delete();
+    }
+
+    @Benchmark
+    public void text(Blackhole blackhole) {
+        for (String fileName : textFiles) {
+            blackhole.consume(new KnapsackProblem(fileName));
+        }
+    }
+
+    @Benchmark
+    public void binary(Blackhole blackhole) {
+        for (String fileName : binaryFiles) {
+            blackhole.consume(BinaryProblemFormat.load(fileName));
+        }
+    }
+
+}
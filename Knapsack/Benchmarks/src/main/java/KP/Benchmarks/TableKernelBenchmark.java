@@ -0,0 +1,63 @@
+package KP.Benchmarks;
+
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import KP.Solvers.Constructive.ConstructiveSolver.DynamicProgramming;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the vector and the scalar kernels of the dynamic programming tables on synthetic
+ * instances with large capacities (a quarter of a million units per thousand items).
+ * <p>
+ * The kernel is chosen once per JVM with the system property <code>knapsack.vector</code>, so every
+ * combination runs in its own fork. The forks add the module <code>jdk.incubator.vector</code>,
+ * so this benchmark needs JDK 16 or later and the project built with it.
+ * <p>
+ * @version 1.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TableKernelBenchmark {
+
+    @Param({"synthetic:500", "synthetic:2000"})
+    public String source;
+
+    @Param({"TABLE", "LINEAR_SPACE"})
+    public DynamicProgramming method;
+
+    @Param({"true", "false"})
+    public String vector;
+
+    private List<KnapsackProblem> problems;
+
+    @Setup
+    public void setUp() {
+        System.setProperty("knapsack.vector", vector);
+        problems = Instances.load(source);
+    }
+
+    @Benchmark
+    public void solve(Blackhole blackhole) {
+        for (KnapsackProblem problem : problems) {
+            blackhole.consume(new ConstructiveSolver(problem).solve(method));
+        }
+    }
+
+}
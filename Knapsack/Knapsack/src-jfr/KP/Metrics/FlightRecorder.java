@@ -0,0 +1,113 @@
+package KP.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Records the solves and the heuristic switches as flight recorder events of the category
+ * <code>Knapsack</code> (see {@link EventRecorder}).
+ * <p>
+ * This class needs the module <code>jdk.jfr</code>, which is not part of the Java 8 platform, so
+ * it is compiled apart from the rest of the project and {@link Metrics} loads it by reflection.
+ * <p>
+ * @version 1.0
+ */
+final class FlightRecorder implements EventRecorder {
+
+    /**
+     * Creates a new instance of <code>FlightRecorder</code>.
+     */
+    FlightRecorder() {
+    }
+
+    @Override
+    public Object beginSolve() {
+        SolveEvent event;
+        event = new SolveEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void endSolve(Object started, String solver, String problem, long nextItemCalls, long featureCalls, long switches, long cells, long allocated) {
+        SolveEvent event;
+        event = (SolveEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.problem = problem;
+            event.nextItemCalls = nextItemCalls;
+            event.featureCalls = featureCalls;
+            event.heuristicSwitches = switches;
+            event.cells = cells;
+            event.allocated = allocated;
+            event.commit();
+        }
+    }
+
+    @Override
+    public void heuristicSwitch(String solver, String problem, String from, String to, long step) {
+        HeuristicSwitchEvent event;
+        event = new HeuristicSwitchEvent();
+        if (event.shouldCommit()) {
+            event.solver = solver;
+            event.problem = problem;
+            event.from = from;
+            event.to = to;
+            event.step = step;
+            event.commit();
+        }
+    }
+
+    @Name("KP.Solve")
+    @Label("Solve")
+    @Category("Knapsack")
+    @Description("A knapsack problem solved by one of the solvers")
+    @StackTrace(false)
+    static class SolveEvent extends Event {
+
+        @Label("Solver")
+        String solver;
+        @Label("Problem")
+        String problem;
+        @Label("nextItem Calls")
+        long nextItemCalls;
+        @Label("getFeature Calls")
+        long featureCalls;
+        @Label("Heuristic Switches")
+        long heuristicSwitches;
+        @Label("Dynamic Programming Cells")
+        long cells;
+        @Label("Allocated")
+        @DataAmount
+        long allocated;
+    }
+
+    @Name("KP.HeuristicSwitch")
+    @Label("Heuristic Switch")
+    @Category("Knapsack")
+    @Description("A heuristic selector changed the heuristic used to pack the next item")
+    @StackTrace(false)
+    static class HeuristicSwitchEvent extends Event {
+
+        @Label("Solver")
+        String solver;
+        @Label("Problem")
+        String problem;
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+        @Label("Step")
+        long step;
+    }
+
+}
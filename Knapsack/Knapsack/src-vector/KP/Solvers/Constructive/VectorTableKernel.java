@@ -0,0 +1,88 @@
+package KP.Solvers.Constructive;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Updates a row of a dynamic programming table with the Vector API, a vector of capacities at a
+ * time (see {@link TableKernel}).
+ * <p>
+ * This class needs JDK 16 or later and the module <code>jdk.incubator.vector</code>, so it is
+ * compiled apart from the rest of the project and {@link TableKernel} loads it by reflection.
+ * <p>
+ * The capacities are visited in blocks from the largest one down. Every block loads its values and
+ * the values one weight below before storing anything, and the blocks below it have not been
+ * updated yet, so the vectors see the row of the previous item as the scalar loop does, even when
+ * the weight is smaller than the vector. The capacities where packing the item is better are those
+ * where <code>row[c - weight] + profit &gt; row[c]</code>, the same ones where the scalar loop
+ * changes the row, and the mask of the comparison gives their decision bits at once.
+ * <p>
+ * @version 1.0
+ */
+final class VectorTableKernel extends TableKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    /**
+     * Creates a new instance of <code>VectorTableKernel</code>.
+     * <p>
+     * @throws UnsupportedOperationException If the vectors of the platform hold a single double,
+     * so the scalar loop is faster.
+     */
+    VectorTableKernel() {
+        if (SPECIES.length() < 2) {
+            throw new UnsupportedOperationException("The vectors of this platform hold a single double.");
+        }
+    }
+
+    @Override
+    void pack(double[] row, int weight, double profit, int capacity, long[] decisions) {
+        int lanes, c, offset;
+        long bits;
+        double value;
+        DoubleVector values, taken;
+        VectorMask<Double> better;
+        lanes = SPECIES.length();
+        /*
+         * Every block covers the capacities [c, c + lanes).
+         */
+        for (c = capacity - lanes + 1; c >= weight; c -= lanes) {
+            values = DoubleVector.fromArray(SPECIES, row, c);
+            taken = DoubleVector.fromArray(SPECIES, row, c - weight).add(profit);
+            if (decisions == null) {
+                values.max(taken).intoArray(row, c);
+                continue;
+            }
+            better = taken.compare(VectorOperators.GT, values);
+            if (better.anyTrue()) {
+                values.max(taken).intoArray(row, c);
+                bits = better.toLong();
+                offset = c & 63;
+                decisions[c >>> 6] |= bits << offset;
+                if (offset + lanes > 64) {
+                    decisions[(c >>> 6) + 1] |= bits >>> (64 - offset);
+                }
+            }
+        }
+        /*
+         * The capacities below the last block are updated one at a time.
+         */
+        for (c = c + lanes - 1; c >= weight; c--) {
+            value = profit + row[c - weight];
+            if (value > row[c]) {
+                row[c] = value;
+                if (decisions != null) {
+                    decisions[c >>> 6] |= 1L << c;
+                }
+            }
+        }
+    }
+
+    @Override
+    String getName() {
+        return "Vector " + SPECIES.vectorBitSize() + " bits";
+    }
+
+}
@@ -0,0 +1,245 @@
+package KP;
+
+import java.util.Arrays;
+
+/**
+ * Provides a knapsack that records the packed items as a bit set over their identifiers, for
+ * solvers that explore many partial solutions.
+ * <p>
+ * The capacity and the profit are kept as primitives, and every packing is recorded in a trail so
+ * that it can be undone in O(1). Copies share the bit set with the original until one of them
+ * packs or removes an item (copy on write), so taking a snapshot costs O(1) and the bit set is
+ * copied at most once per snapshot that is modified.
+ * <p>
+ * This class overrides every method of <code>Knapsack</code> and does not use (nor allocate) the
+ * state of the base class. Only the items of the problem, identified by their identifiers, can be
+ * packed; any other item is rejected.
+ * <p>
+ * @version 1.0
+ */
+public class BitSetKnapsack extends Knapsack {
+
+    private final Item[] catalog;
+    private long[] words;
+    private boolean shared;
+    private int capacity, size, trailSize;
+    private double profit;
+    private int[] trail;
+    private double[] profitTrail;
+
+    /**
+     * Creates a new instance of <code>BitSetKnapsack</code> for the items of the problem provided.
+     * <p>
+     * @param problem The knapsack problem whose items will be packed. The identifiers of its items
+     * must not be negative.
+     */
+    public BitSetKnapsack(KnapsackProblem problem) {
+        int maxId;
+        Item[] items;
+        items = problem.getItems();
+        maxId = -1;
+        for (Item item : items) {
+            maxId = Math.max(maxId, item.getId());
+        }
+        catalog = new Item[maxId + 1];
+        for (Item item : items) {
+            catalog[item.getId()] = item;
+        }
+        words = new long[(catalog.length >>> 6) + 1];
+        capacity = problem.getCapacity();
+        profit = 0;
+        trail = new int[16];
+        profitTrail = new double[16];
+    }
+
+    /**
+     * Creates a new instance of <code>BitSetKnapsack</code> from an existing instance (copy
+     * constructor). The bit set is shared until either knapsack is modified. The copy starts with
+     * an empty trail, so its packings can only be undone back to this point.
+     * <p>
+     * @param knapsack The instance of <code>BitSetKnapsack</code> to copy to this instance.
+     */
+    public BitSetKnapsack(BitSetKnapsack knapsack) {
+        catalog = knapsack.catalog;
+        words = knapsack.words;
+        shared = true;
+        knapsack.shared = true;
+        capacity = knapsack.capacity;
+        profit = knapsack.profit;
+        size = knapsack.size;
+        trail = new int[16];
+        profitTrail = new double[16];
+    }
+
+    /**
+     * Returns a copy of this knapsack (see {@link #BitSetKnapsack(KP.BitSetKnapsack)}).
+     * <p>
+     * @return A copy of this knapsack.
+     */
+    public BitSetKnapsack snapshot() {
+        return new BitSetKnapsack(this);
+    }
+
+    @Override
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public double getProfit() {
+        return profit;
+    }
+
+    /**
+     * Returns the number of items packed in this knapsack.
+     * <p>
+     * @return The number of items packed in this knapsack.
+     */
+    public int getNbItems() {
+        return size;
+    }
+
+    /**
+     * Returns the items packed in this knapsack, sorted by identifier.
+     * <p>
+     * @return The items packed in this knapsack.
+     */
+    @Override
+    public Item[] getItems() {
+        int k;
+        long word;
+        Item[] items;
+        items = new Item[size];
+        k = 0;
+        for (int w = 0; w < words.length; w++) {
+            word = words[w];
+            while (word != 0) {
+                items[k++] = catalog[(w << 6) + Long.numberOfTrailingZeros(word)];
+                word &= word - 1;
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Revises if the item with the identifier provided is packed in this knapsack.
+     * <p>
+     * @param id The identifier of the item.
+     * @return <code>true</code> if the item is packed in this knapsack, <code>false</code>
+     * otherwise (also if no item of the problem has the identifier).
+     */
+    public boolean contains(int id) {
+        return id >= 0 && id < catalog.length && (words[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Revises if the item provided can be packed in this knapsack: it must be an item of the
+     * problem (by identifier) that is not packed yet and fits.
+     * <p>
+     * @param item The item to be packed.
+     * @return <code>true</code> if the item can be packed in this knapsack, <code>false</code>
+     * otherwise.
+     */
+    @Override
+    public boolean canPack(Item item) {
+        int id;
+        id = item.getId();
+        return id >= 0 && id < catalog.length && catalog[id] != null && item.getWeight() <= capacity && !contains(id);
+    }
+
+    /**
+     * Packs an item into this knapsack. An item that is already packed is not packed again.
+     * <p>
+     * @param item The item to pack.
+     * @return <code>true</code> if the item was successfully packed, <code>false</code> otherwise.
+     */
+    @Override
+    public boolean pack(Item item) {
+        int id;
+        if (!canPack(item)) {
+            return false;
+        }
+        id = item.getId();
+        write();
+        words[id >>> 6] |= 1L << id;
+        if (trailSize == trail.length) {
+            trail = Arrays.copyOf(trail, trailSize << 1);
+            profitTrail = Arrays.copyOf(profitTrail, trailSize << 1);
+        }
+        trail[trailSize] = id;
+        profitTrail[trailSize] = profit;
+        trailSize++;
+        capacity -= item.getWeight();
+        profit += item.getProfit();
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns a mark of the current state of this knapsack, to be used with
+     * {@link #undo(int)}.
+     * <p>
+     * @return A mark of the current state of this knapsack.
+     */
+    public int mark() {
+        return trailSize;
+    }
+
+    /**
+     * Removes the last item packed in this knapsack.
+     * <p>
+     * @return <code>true</code> if an item was removed, <code>false</code> if there was nothing to
+     * undo.
+     */
+    public boolean undo() {
+        int id;
+        if (trailSize == 0) {
+            return false;
+        }
+        write();
+        trailSize--;
+        id = trail[trailSize];
+        words[id >>> 6] &= ~(1L << id);
+        capacity += catalog[id].getWeight();
+        profit = profitTrail[trailSize];
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes the items packed since the mark provided was taken.
+     * <p>
+     * @param mark A mark returned by {@link #mark()}.
+     */
+    public void undo(int mark) {
+        while (trailSize > mark) {
+            undo();
+        }
+    }
+
+    /**
+     * Makes the bit set of this knapsack private before it is modified.
+     */
+    private void write() {
+        if (shared) {
+            words = words.clone();
+            shared = false;
+        }
+    }
+
+    /**
+     * Returns the string representation of this knapsack.
+     * <p>
+     * @return The string representation of this knapsack.
+     */
+    @Override
+    public String toString() {
+        StringBuilder string;
+        string = new StringBuilder();
+        for (Item item : getItems()) {
+            string.append(item.toString()).append(" ");
+        }
+        return string.toString().trim();
+    }
+
+}
@@ -0,0 +1,224 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Provides the methods to save and load knapsack problems in a compact binary format.
+ * <p>
+ * A problem is stored as a header of 16 bytes (the characters <code>KPBF</code>, the version of
+ * the format, the number of items and the capacity), the weights as 4-byte integers and, starting
+ * at the next multiple of 8 bytes, the profits as 8-byte doubles. All the values are little endian.
+ * Unlike the text format, the profits are stored exactly. The file is memory mapped and the arrays
+ * are copied in bulk, so no parsing is needed.
+ * <p>
+ * To convert a text file into a binary one, use <code>save(new KnapsackProblem(text), binary)</code>;
+ * to convert it back, use <code>load(binary).save(text)</code>.
+ * <p>
+ * @version 1.0
+ */
+public class BinaryProblemFormat {
+
+    /**
+     * The version of the format written by this class.
+     */
+    public static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 16;
+    private static final byte[] MAGIC = {'K', 'P', 'B', 'F'};
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final long MAP_SIZE = 1L << 30;
+
+    private BinaryProblemFormat() {
+    }
+
+    /**
+     * Saves a knapsack problem into a binary file.
+     * <p>
+     * @param problem The knapsack problem to save.
+     * @param fileName The name of the file where the instance is to be saved.
+     */
+    public static void save(KnapsackProblem problem, String fileName) {
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            write(channel, 0, problem);
+        } catch (IOException e) {
+            halt("write", fileName, e);
+        }
+    }
+
+    /**
+     * Loads a knapsack problem from a binary file.
+     * <p>
+     * @param fileName The name of the file.
+     * @return The knapsack problem in the file.
+     */
+    public static KnapsackProblem load(String fileName) {
+        KnapsackProblem problem;
+        problem = null;
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            problem = read(channel, 0, fileName.substring(fileName.lastIndexOf('/') + 1), fileName);
+        } catch (IOException e) {
+            halt("read", fileName, e);
+        }
+        return problem;
+    }
+
+    /**
+     * Returns the number of bytes used by a problem with the number of items provided.
+     */
+    static long size(int nbItems) {
+        return HEADER_SIZE + align(4L * nbItems) + 8L * nbItems;
+    }
+
+    /**
+     * Returns the smallest multiple of 8 that is not smaller than the value provided.
+     */
+    static long align(long value) {
+        return (value + 7) & ~7L;
+    }
+
+    /**
+     * Writes a knapsack problem at the position provided of a file.
+     */
+    static void write(FileChannel channel, long position, KnapsackProblem problem) throws IOException {
+        int n, k;
+        int[] weights;
+        double[] profits;
+        ByteBuffer buffer;
+        weights = problem.getWeights();
+        profits = problem.getProfits();
+        n = weights.length;
+        buffer = ByteBuffer.allocate(CHUNK_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(n).putInt(problem.getCapacity());
+        position = flush(channel, position, buffer);
+        for (int i = 0; i < n; i += k) {
+            k = Math.min(n - i, CHUNK_SIZE / 4);
+            buffer.asIntBuffer().put(weights, i, k);
+            buffer.position(4 * k);
+            position = flush(channel, position, buffer);
+        }
+        if ((n & 1) == 1) {
+            buffer.putInt(0);
+            position = flush(channel, position, buffer);
+        }
+        for (int i = 0; i < n; i += k) {
+            k = Math.min(n - i, CHUNK_SIZE / 8);
+            buffer.asDoubleBuffer().put(profits, i, k);
+            buffer.position(8 * k);
+            position = flush(channel, position, buffer);
+        }
+    }
+
+    /**
+     * Reads a knapsack problem from the position provided of a file. The problem is mapped at once
+     * when it fits in a single buffer, and in chunks otherwise.
+     * <p>
+     * @param id The unique identifier of the problem.
+     * @param fileName The name of the file, to report errors.
+     */
+    static KnapsackProblem read(FileChannel channel, long position, String id, String fileName) throws IOException {
+        int n, capacity;
+        int[] weights;
+        double[] profits;
+        MappedByteBuffer buffer;
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(channel.size() - position, HEADER_SIZE));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        n = readHeader(buffer, fileName);
+        if (size(n) <= MAP_SIZE) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size(n));
+            return read(buffer.order(ByteOrder.LITTLE_ENDIAN), id, fileName);
+        }
+        capacity = buffer.getInt();
+        weights = new int[n];
+        profits = new double[n];
+        position += HEADER_SIZE;
+        for (int i = 0, k; i < n; i += k) {
+            k = (int) Math.min(n - i, MAP_SIZE / 4);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * k);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(weights, i, k);
+            position += 4L * k;
+        }
+        position = align(position);
+        for (int i = 0, k; i < n; i += k) {
+            k = (int) Math.min(n - i, MAP_SIZE / 8);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * k);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(profits, i, k);
+            position += 8L * k;
+        }
+        return new KnapsackProblem(weights, profits, capacity, id);
+    }
+
+    /**
+     * Reads a knapsack problem from a little-endian buffer, starting at its current position.
+     * <p>
+     * @param id The unique identifier of the problem.
+     * @param fileName The name of the file, to report errors.
+     */
+    static KnapsackProblem read(ByteBuffer buffer, String id, String fileName) {
+        int n, capacity, start;
+        int[] weights;
+        double[] profits;
+        start = buffer.position();
+        n = readHeader(buffer, fileName);
+        capacity = buffer.getInt();
+        weights = new int[n];
+        profits = new double[n];
+        buffer.asIntBuffer().get(weights);
+        buffer.position(start + (int) align(HEADER_SIZE + 4L * n));
+        buffer.asDoubleBuffer().get(profits);
+        return new KnapsackProblem(weights, profits, capacity, id);
+    }
+
+    /**
+     * Checks the magic characters and the version of a problem and returns its number of items. The
+     * buffer is left at the capacity.
+     */
+    private static int readHeader(ByteBuffer buffer, String fileName) {
+        int version;
+        byte[] magic;
+        magic = new byte[MAGIC.length];
+        version = 0;
+        if (buffer.remaining() >= HEADER_SIZE) {
+            buffer.get(magic);
+            version = buffer.getInt();
+        }
+        if (!Arrays.equals(magic, MAGIC) || version != VERSION) {
+            System.out.println("The file \'" + fileName + "\' does not contain a knapsack problem in binary format (version " + VERSION + ").");
+            System.out.println("The system will halt.");
+            System.exit(1);
+        }
+        return buffer.getInt();
+    }
+
+    /**
+     * Writes the content of the buffer at the position provided and clears it.
+     * <p>
+     * @return The position after the bytes written.
+     */
+    private static long flush(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        buffer.clear();
+        return position;
+    }
+
+    /**
+     * Reports an input/output error and halts the system.
+     */
+    static void halt(String operation, String fileName, IOException e) {
+        System.out.println("An error occurred while attempting to " + operation + " the file \'" + fileName + "\'.");
+        System.out.println("Exception: " + e.toString());
+        System.out.println("The system will halt.");
+        System.exit(1);
+    }
+
+}
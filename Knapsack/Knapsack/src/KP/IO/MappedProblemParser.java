@@ -0,0 +1,259 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads knapsack problems from text files (in the format written by
+ * <code>KnapsackProblem.save</code>) without creating strings.
+ * <p>
+ * The file is memory mapped in chunks and scanned byte by byte: the first line contains the number
+ * of items and the capacity, and every other line the weight and the profit of an item. The fields
+ * are separated by commas, spaces or tabs, and the lines may end in CRLF. Every field is copied to
+ * a small buffer that is reused (so it may span two chunks) and parsed from there. Integers are
+ * parsed directly; decimal numbers with at most 15 significant digits and a power of ten of at most
+ * 22 are computed with one exact operation, which gives the same result as
+ * <code>Double.parseDouble</code>, and any other number is passed to it.
+ * <p>
+ * @version 1.0
+ */
+public class MappedProblemParser {
+
+    private static final long CHUNK_SIZE = 1L << 30;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private byte[] token;
+    private int length, field, nbItems, capacity, nbRead;
+    private boolean header;
+    private int[] weights;
+    private double[] profits;
+
+    private MappedProblemParser() {
+        token = new byte[32];
+        header = true;
+    }
+
+    /**
+     * Reads a knapsack problem from a text file.
+     * <p>
+     * @param fileName The name of the file.
+     * @return The knapsack problem in the file.
+     */
+    public static KnapsackProblem parse(String fileName) {
+        long size;
+        MappedByteBuffer buffer;
+        MappedProblemParser parser;
+        parser = new MappedProblemParser();
+        try (FileChannel channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ)) {
+            size = channel.size();
+            for (long position = 0; position < size; position += CHUNK_SIZE) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(CHUNK_SIZE, size - position));
+                parser.scan(buffer);
+            }
+            parser.endField();
+            parser.endLine();
+        } catch (IOException e) {
+            System.out.println("An error occurred while attempting to read the file \'" + fileName + "\'.");
+            System.out.println("Exception: " + e.toString());
+            System.out.println("The system will halt.");
+            System.exit(1);
+        }
+        if (parser.header) {
+            throw new NumberFormatException("The file \'" + fileName + "\' does not contain the number of items and the capacity.");
+        }
+        return new KnapsackProblem(parser.weights, parser.profits, parser.capacity, fileName.substring(fileName.lastIndexOf('/') + 1));
+    }
+
+    /**
+     * Processes the bytes of a chunk of the file.
+     */
+    private void scan(MappedByteBuffer buffer) {
+        int limit;
+        byte b;
+        limit = buffer.limit();
+        for (int i = 0; i < limit; i++) {
+            b = buffer.get(i);
+            switch (b) {
+                case ',':
+                case ' ':
+                case '\t':
+                case '\r':
+                    endField();
+                    break;
+                case '\n':
+                    endField();
+                    endLine();
+                    break;
+                default:
+                    if (length == token.length) {
+                        token = Arrays.copyOf(token, length << 1);
+                    }
+                    token[length++] = b;
+            }
+        }
+    }
+
+    /**
+     * Parses the field in the buffer, if any. Only the first two fields of each line are used.
+     */
+    private void endField() {
+        if (length == 0) {
+            return;
+        }
+        if (header) {
+            if (field == 0) {
+                nbItems = parseInt(token, length);
+            } else if (field == 1) {
+                capacity = parseInt(token, length);
+            }
+        } else if (nbRead < nbItems) {
+            if (field == 0) {
+                weights[nbRead] = parseInt(token, length);
+            } else if (field == 1) {
+                profits[nbRead] = parseDouble(token, length);
+            }
+        }
+        field++;
+        length = 0;
+    }
+
+    /**
+     * Finishes a line. Blank lines are ignored.
+     */
+    private void endLine() {
+        if (field == 0) {
+            return;
+        }
+        if (header) {
+            if (field < 2) {
+                throw new NumberFormatException("The first line must contain the number of items and the capacity.");
+            }
+            weights = new int[nbItems];
+            profits = new double[nbItems];
+            header = false;
+        } else {
+            if (field < 2 && nbRead < nbItems) {
+                throw new NumberFormatException("The line of item " + nbRead + " must contain its weight and its profit.");
+            }
+            nbRead++;
+        }
+        field = 0;
+    }
+
+    /**
+     * Parses an integer as <code>Integer.parseInt</code> does.
+     */
+    private static int parseInt(byte[] token, int length) {
+        int i;
+        long value;
+        boolean negative;
+        i = 0;
+        negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i++;
+        }
+        if (i == length || length - i > 10) {
+            return Integer.parseInt(new String(token, 0, length, StandardCharsets.US_ASCII));
+        }
+        value = 0;
+        for (; i < length; i++) {
+            if (token[i] < '0' || token[i] > '9') {
+                return Integer.parseInt(new String(token, 0, length, StandardCharsets.US_ASCII));
+            }
+            value = value * 10 + (token[i] - '0');
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return Integer.parseInt(new String(token, 0, length, StandardCharsets.US_ASCII));
+        }
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal number as <code>Double.parseDouble</code> does.
+     */
+    private static double parseDouble(byte[] token, int length) {
+        int i, digits, exponent, explicitExponent;
+        long mantissa;
+        boolean negative, negativeExponent, point, anyDigit;
+        i = 0;
+        negative = false;
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            i++;
+        }
+        mantissa = 0;
+        digits = 0;
+        exponent = 0;
+        point = false;
+        anyDigit = false;
+        for (; i < length; i++) {
+            if (token[i] >= '0' && token[i] <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || token[i] != '0') {
+                    if (++digits > 15) {
+                        return fallback(token, length);
+                    }
+                    mantissa = mantissa * 10 + (token[i] - '0');
+                }
+                if (point) {
+                    exponent--;
+                }
+            } else if (token[i] == '.' && !point) {
+                point = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return fallback(token, length);
+        }
+        if (i < length && (token[i] == 'e' || token[i] == 'E')) {
+            i++;
+            negativeExponent = false;
+            if (i < length && (token[i] == '-' || token[i] == '+')) {
+                negativeExponent = token[i] == '-';
+                i++;
+            }
+            if (i == length || length - i > 3) {
+                return fallback(token, length);
+            }
+            explicitExponent = 0;
+            for (; i < length; i++) {
+                if (token[i] < '0' || token[i] > '9') {
+                    return fallback(token, length);
+                }
+                explicitExponent = explicitExponent * 10 + (token[i] - '0');
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i < length) {
+            return fallback(token, length);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exponent < -22 || exponent > 22) {
+            return fallback(token, length);
+        }
+        if (exponent < 0) {
+            return negative ? -(mantissa / POWERS_OF_TEN[-exponent]) : mantissa / POWERS_OF_TEN[-exponent];
+        }
+        return negative ? -(mantissa * POWERS_OF_TEN[exponent]) : mantissa * POWERS_OF_TEN[exponent];
+    }
+
+    private static double fallback(byte[] token, int length) {
+        return Double.parseDouble(new String(token, 0, length, StandardCharsets.US_ASCII));
+    }
+
+}
@@ -0,0 +1,257 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Provides the methods to pack a set of knapsack problems into a single binary file (an archive)
+ * and to read them back.
+ * <p>
+ * An archive starts with a header of 16 bytes (the characters <code>KPBA</code>, the version of the
+ * format and the number of problems), followed by an index with the position and the name of every
+ * problem. The problems follow the index, each one in the format of
+ * {@link BinaryProblemFormat} and starting at a multiple of 8 bytes. Opening an archive maps it
+ * and reads the index; every problem is copied from the mapped file when it is requested, and
+ * archives larger than 2 GB are mapped again for every problem.
+ * <p>
+ * @version 1.0
+ */
+public class ProblemArchive implements AutoCloseable {
+
+    private static final byte[] MAGIC = {'K', 'P', 'B', 'A'};
+    private static final int HEADER_SIZE = 16;
+
+    private final String fileName;
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    private final List<String> names;
+    private final Map<String, Long> positions;
+
+    /**
+     * Creates a new instance of <code>ProblemArchive</code> that reads the archive provided.
+     * <p>
+     * @param fileName The name of the archive.
+     */
+    public ProblemArchive(String fileName) {
+        int count, version, length;
+        long position, size;
+        byte[] magic, name;
+        MappedByteBuffer buffer;
+        FileChannel tmp;
+        this.fileName = fileName;
+        names = new ArrayList<>();
+        positions = new HashMap<>();
+        tmp = null;
+        buffer = null;
+        size = -1;
+        try {
+            tmp = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+            size = tmp.size();
+            buffer = tmp.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            magic = new byte[MAGIC.length];
+            version = 0;
+            if (buffer.remaining() >= HEADER_SIZE) {
+                buffer.get(magic);
+                version = buffer.getInt();
+            }
+            if (!Arrays.equals(magic, MAGIC) || version != BinaryProblemFormat.VERSION) {
+                System.out.println("The file \'" + fileName + "\' is not a knapsack problem archive (version " + BinaryProblemFormat.VERSION + ").");
+                System.out.println("The system will halt.");
+                System.exit(1);
+            }
+            count = buffer.getInt();
+            buffer.position(HEADER_SIZE);
+            for (int i = 0; i < count; i++) {
+                position = buffer.getLong();
+                length = buffer.getInt();
+                name = new byte[length];
+                buffer.get(name);
+                names.add(new String(name, StandardCharsets.UTF_8));
+                positions.put(names.get(i), position);
+            }
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("read", fileName, e);
+        }
+        channel = tmp;
+        /*
+         * An archive that fits in a single buffer stays mapped, so reading a problem needs no
+         * system calls.
+         */
+        data = size <= Integer.MAX_VALUE ? buffer : null;
+    }
+
+    /**
+     * Returns the number of problems in this archive.
+     * <p>
+     * @return The number of problems in this archive.
+     */
+    public int getSize() {
+        return names.size();
+    }
+
+    /**
+     * Returns the names of the problems in this archive, in the order they were packed.
+     * <p>
+     * @return The names of the problems in this archive.
+     */
+    public List<String> getNames() {
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Revises if this archive contains a problem with the name provided.
+     * <p>
+     * @param name The name of the problem.
+     * @return <code>true</code> if this archive contains the problem, <code>false</code> otherwise.
+     */
+    public boolean contains(String name) {
+        return positions.containsKey(name);
+    }
+
+    /**
+     * Returns the problem with the name provided.
+     * <p>
+     * @param name The name of the problem.
+     * @return The problem with the name provided. Its identifier is its name.
+     */
+    public KnapsackProblem get(String name) {
+        ByteBuffer buffer;
+        KnapsackProblem problem;
+        if (!positions.containsKey(name)) {
+            System.out.println("The archive \'" + fileName + "\' does not contain the problem \'" + name + "\'.");
+            System.out.println("The system will halt.");
+            System.exit(1);
+        }
+        if (data != null) {
+            buffer = data.duplicate();
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.position(positions.get(name).intValue());
+            return BinaryProblemFormat.read(buffer, name, fileName);
+        }
+        problem = null;
+        try {
+            problem = BinaryProblemFormat.read(channel, positions.get(name), name, fileName);
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("read", fileName, e);
+        }
+        return problem;
+    }
+
+    /**
+     * Closes this archive.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("close", fileName, e);
+        }
+    }
+
+    /**
+     * Packs the problems provided into an archive. Every problem is stored with its identifier as
+     * its name.
+     * <p>
+     * @param problems The problems to pack.
+     * @param fileName The name of the archive.
+     */
+    public static void pack(List<KnapsackProblem> problems, String fileName) {
+        int indexSize;
+        long position;
+        long[] positions;
+        byte[][] names;
+        ByteBuffer index;
+        /*
+         * The sizes of the problems are known in advance, so the index is written first.
+         */
+        names = new byte[problems.size()][];
+        positions = new long[problems.size()];
+        position = HEADER_SIZE;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = problems.get(i).getId().getBytes(StandardCharsets.UTF_8);
+            position += 12 + names[i].length;
+        }
+        position = BinaryProblemFormat.align(position);
+        indexSize = (int) position;
+        for (int i = 0; i < names.length; i++) {
+            positions[i] = position;
+            position += BinaryProblemFormat.size(problems.get(i).getNbItems());
+        }
+        index = ByteBuffer.allocate(indexSize).order(ByteOrder.LITTLE_ENDIAN);
+        index.put(MAGIC).putInt(BinaryProblemFormat.VERSION).putInt(names.length).putInt(0);
+        for (int i = 0; i < names.length; i++) {
+            index.putLong(positions[i]).putInt(names[i].length).put(names[i]);
+        }
+        index.position(index.capacity());
+        index.flip();
+        try (FileChannel out = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            for (long written = 0; index.hasRemaining();) {
+                written += out.write(index, written);
+            }
+            for (int i = 0; i < names.length; i++) {
+                BinaryProblemFormat.write(out, positions[i], problems.get(i));
+            }
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("write", fileName, e);
+        }
+    }
+
+    /**
+     * Packs all the problems in a folder (in text format, sorted by file name) into an archive.
+     * <p>
+     * @param folderName The name of the folder where the instances are contained.
+     * @param fileName The name of the archive.
+     */
+    public static void pack(String folderName, String fileName) {
+        List<String> fileNames;
+        List<KnapsackProblem> problems;
+        File folder;
+        folder = new File(folderName);
+        if (!folder.isDirectory()) {
+            System.err.println("The path \'" + folderName + "\'is not a valid directory.");
+            System.err.println("The system will halt.");
+            System.exit(1);
+        }
+        fileNames = Arrays.asList(folder.list());
+        Collections.sort(fileNames);
+        problems = new ArrayList<>();
+        for (String name : fileNames) {
+            if (new File(folder, name).isFile()) {
+                problems.add(new KnapsackProblem(folderName + "/" + name));
+            }
+        }
+        pack(problems, fileName);
+    }
+
+    /**
+     * Writes every problem in an archive into a folder, in text format and with its name as the
+     * name of the file.
+     * <p>
+     * @param fileName The name of the archive.
+     * @param folderName The name of the folder where the instances are to be saved.
+     */
+    public static void unpack(String fileName, String folderName) {
+        try (ProblemArchive archive = new ProblemArchive(fileName)) {
+            for (String name : archive.getNames()) {
+                archive.get(name).save(folderName + "/" + name);
+            }
+        }
+    }
+
+}
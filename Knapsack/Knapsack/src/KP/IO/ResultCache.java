@@ -0,0 +1,475 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Keeps the results of solving knapsack problems in a file, so they are not computed again in
+ * later runs.
+ * <p>
+ * A result is identified by the content of the problem and the method that solved it: the key is
+ * the first 16 bytes of the SHA-256 of the capacity, the weights and the profits of the problem,
+ * plus the name of the method. Two copies of the same instance (or the text and the binary files
+ * of the same instance) share their results, whatever their names, and a changed instance never
+ * gets an old result.
+ * <p>
+ * The results also depend on the code of the methods, which the key cannot see, so every cache is
+ * opened with the version of the results it keeps, chosen by the caller. The version is written in
+ * the header of the file, and the results of a file written with another version (or another
+ * format) are discarded when it is opened. Whoever changes the results of a method changes the
+ * version, so the old results are never served again.
+ * <p>
+ * All the results are kept in memory, in the order they were last used. The file is a log that
+ * starts with a header (the characters <code>KPRC</code>, the version of the format as a 4-byte
+ * integer, and the length and the UTF-8 bytes of the version of the results) followed by one
+ * record per result stored: the 16 bytes of the problem, the length and the UTF-8
+ * bytes of the method, and the result as an 8-byte double, all little endian. New results are
+ * appended as soon as they are stored; when there are more results than the maximum, the least
+ * recently used ones are evicted. The file is compacted (rewritten with the results in memory, from
+ * the least to the most recently used) when it is closed, if some results were evicted or used; the
+ * compacted log is written to a temporary file that atomically replaces the file, so a compaction
+ * that is interrupted loses nothing.
+ * The file is read through a buffer of fixed size when it is opened, so it can be of any size, and
+ * a record cut by an interrupted run at its end is discarded.
+ * <p>
+ * The methods of this class are thread safe.
+ * <p>
+ * @version 1.0
+ */
+public class ResultCache implements AutoCloseable {
+
+    /**
+     * The maximum number of results kept by default.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+
+    private static final byte[] MAGIC = {'K', 'P', 'R', 'C'};
+    private static final int VERSION = 2;
+    private static final int DIGEST_SIZE = 16;
+    private static final int MAX_RECORD_SIZE = DIGEST_SIZE + 1 + 255 + 8;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Map<KnapsackProblem, byte[]> DIGESTS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final String fileName, version;
+    private final int maxSize;
+    private final LinkedHashMap<Key, Double> results;
+    private FileChannel channel;
+    private long hits, misses;
+    private boolean reordered;
+    private int records;
+
+    /**
+     * Creates a new instance of <code>ResultCache</code> that keeps up to
+     * {@link #DEFAULT_MAX_SIZE} results in the file provided.
+     * <p>
+     * @param fileName The name of the file. It is created if it does not exist.
+     * @param version The version of the results. The results stored with another version are
+     * discarded. Its UTF-8 bytes must not be more than 255.
+     */
+    public ResultCache(String fileName, String version) {
+        this(fileName, DEFAULT_MAX_SIZE, version);
+    }
+
+    /**
+     * Creates a new instance of <code>ResultCache</code> that keeps up to the number of results
+     * provided in the file provided.
+     * <p>
+     * @param fileName The name of the file. It is created if it does not exist.
+     * @param maxSize The maximum number of results to keep.
+     * @param version The version of the results. The results stored with another version are
+     * discarded. Its UTF-8 bytes must not be more than 255.
+     */
+    public ResultCache(String fileName, int maxSize, String version) {
+        long size, end;
+        if (version.getBytes(StandardCharsets.UTF_8).length > 255) {
+            throw new IllegalArgumentException("The version of the results \'" + version + "\' is too long.");
+        }
+        this.fileName = fileName;
+        this.version = version;
+        this.maxSize = Math.max(maxSize, 1);
+        results = new LinkedHashMap<>(16, 0.75f, true);
+        try {
+            channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            end = size == 0 ? -1 : load();
+            if (end < 0) {
+                /*
+                 * A new file, or one whose results are from another version.
+                 */
+                channel.truncate(0);
+                channel.position(0);
+                writeHeader();
+            } else {
+                if (end < size) {
+                    channel.truncate(end);
+                }
+                channel.position(end);
+            }
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("read", fileName, e);
+        }
+        evict();
+    }
+
+    /**
+     * Returns the result of a method on a problem.
+     * <p>
+     * @param problem The problem.
+     * @param method The name of the method.
+     * @return The result of the method on the problem, or <code>null</code> if it is not stored.
+     * @throws IllegalStateException If this cache is closed.
+     */
+    public synchronized Double get(KnapsackProblem problem, String method) {
+        Double result;
+        checkOpen();
+        result = results.get(new Key(digest(problem), method));
+        if (result == null) {
+            misses++;
+        } else {
+            hits++;
+            reordered = true;
+        }
+        return result;
+    }
+
+    /**
+     * Stores the result of a method on a problem, replacing the previous one (if any).
+     * <p>
+     * @param problem The problem.
+     * @param method The name of the method. Its UTF-8 bytes must not be more than 255.
+     * @param result The result of the method on the problem.
+     * @throws IllegalStateException If this cache is closed.
+     */
+    public synchronized void put(KnapsackProblem problem, String method, double result) {
+        Key key;
+        checkOpen();
+        key = new Key(digest(problem), method);
+        try {
+            append(key, result);
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("write", fileName, e);
+        }
+        results.put(key, result);
+        evict();
+    }
+
+    /**
+     * Returns the result of a method on a problem, computing and storing it if it is not stored.
+     * The method runs outside of the lock of this cache, so other threads are not blocked by it.
+     * <p>
+     * @param problem The problem.
+     * @param method The name of the method.
+     * @param solver Computes the result of the method on the problem.
+     * @return The result of the method on the problem.
+     * @throws IllegalStateException If this cache is closed.
+     */
+    public double get(KnapsackProblem problem, String method, DoubleSupplier solver) {
+        Double result;
+        double value;
+        result = get(problem, method);
+        if (result != null) {
+            return result;
+        }
+        value = solver.getAsDouble();
+        put(problem, method, value);
+        return value;
+    }
+
+    /**
+     * Returns the number of results in this cache.
+     * <p>
+     * @return The number of results in this cache.
+     */
+    public synchronized int getSize() {
+        return results.size();
+    }
+
+    /**
+     * Returns the number of requests answered by this cache since it was opened.
+     * <p>
+     * @return The number of requests answered by this cache.
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of requests not answered by this cache since it was opened.
+     * <p>
+     * @return The number of requests not answered by this cache.
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Compacts the file of this cache (if needed) and closes it.
+     */
+    @Override
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+            channel = null;
+            if (reordered || records > results.size()) {
+                compact();
+            }
+        } catch (IOException e) {
+            BinaryProblemFormat.halt("write", fileName, e);
+        }
+    }
+
+    /**
+     * Throws an exception if this cache is closed.
+     */
+    private void checkOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("The result cache \'" + fileName + "\' is closed.");
+        }
+    }
+
+    /**
+     * Returns the content hash of a problem used by this cache, as 32 hexadecimal characters.
+     * <p>
+     * @param problem The problem.
+     * @return The content hash of the problem.
+     */
+    public static String fingerprint(KnapsackProblem problem) {
+        StringBuilder s;
+        s = new StringBuilder();
+        for (byte b : digest(problem)) {
+            s.append(String.format("%02x", b));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Returns the first bytes of the SHA-256 of the capacity, the weights and the profits of a
+     * problem. The digest of every problem is kept until the problem is garbage collected.
+     */
+    private static byte[] digest(KnapsackProblem problem) {
+        int[] weights;
+        double[] profits;
+        byte[] digest;
+        ByteBuffer buffer;
+        MessageDigest sha;
+        digest = DIGESTS.get(problem);
+        if (digest != null) {
+            return digest;
+        }
+        weights = problem.getWeights();
+        profits = problem.getProfits();
+        buffer = ByteBuffer.allocate(8 + 12 * weights.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(problem.getCapacity()).putInt(weights.length);
+        buffer.asIntBuffer().put(weights);
+        buffer.position(buffer.position() + 4 * weights.length);
+        for (double profit : profits) {
+            buffer.putLong(Double.doubleToLongBits(profit));
+        }
+        try {
+            sha = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest = Arrays.copyOf(sha.digest(buffer.array()), DIGEST_SIZE);
+        DIGESTS.put(problem, digest);
+        return digest;
+    }
+
+    /**
+     * Reads the records of the file into memory, a buffer at a time, and returns the position where
+     * the last complete record ends. The bytes after it can only be a record cut by an interrupted
+     * run.
+     * <p>
+     * @return The position where the last complete record ends, or -1 if the file is from another
+     * version.
+     */
+    private long load() throws IOException {
+        int length;
+        long position, end;
+        byte[] magic, digest, method, stored;
+        ByteBuffer buffer;
+        buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.flip();
+        position = fill(buffer, 0);
+        magic = new byte[MAGIC.length];
+        if (buffer.remaining() >= MAGIC.length) {
+            buffer.get(magic);
+        }
+        if (!Arrays.equals(magic, MAGIC)) {
+            System.out.println("The file \'" + fileName + "\' is not a result cache.");
+            System.out.println("The system will halt.");
+            System.exit(1);
+        }
+        if (buffer.remaining() < 5 || buffer.getInt() != VERSION) {
+            return -1;
+        }
+        stored = new byte[buffer.get() & 0xFF];
+        if (buffer.remaining() < stored.length) {
+            return -1;
+        }
+        buffer.get(stored);
+        if (!version.equals(new String(stored, StandardCharsets.UTF_8))) {
+            return -1;
+        }
+        end = position - buffer.remaining();
+        while (true) {
+            if (buffer.remaining() < MAX_RECORD_SIZE) {
+                position = fill(buffer, position);
+            }
+            if (buffer.remaining() < DIGEST_SIZE + 1) {
+                break;
+            }
+            digest = new byte[DIGEST_SIZE];
+            buffer.get(digest);
+            length = buffer.get() & 0xFF;
+            if (buffer.remaining() < length + 8) {
+                break;
+            }
+            method = new byte[length];
+            buffer.get(method);
+            results.put(new Key(digest, new String(method, StandardCharsets.UTF_8)), buffer.getDouble());
+            records++;
+            end = position - buffer.remaining();
+        }
+        return end;
+    }
+
+    /**
+     * Moves the unread bytes of a buffer to its start and fills the rest with the bytes of the file
+     * from the position provided, until the buffer is full or the file ends.
+     * <p>
+     * @return The position in the file after the bytes read.
+     */
+    private long fill(ByteBuffer buffer, long position) throws IOException {
+        int read;
+        buffer.compact();
+        while (buffer.hasRemaining() && (read = channel.read(buffer, position)) >= 0) {
+            position += read;
+        }
+        buffer.flip();
+        return position;
+    }
+
+    /**
+     * Writes the results in memory to a temporary file next to the file of this cache and moves it
+     * over the file, so an interrupted compaction leaves the previous file as it was.
+     */
+    private void compact() throws IOException {
+        Path file, temporary;
+        file = Paths.get(fileName).toAbsolutePath();
+        temporary = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeHeader();
+            records = 0;
+            for (Map.Entry<Key, Double> entry : results.entrySet()) {
+                append(entry.getKey(), entry.getValue());
+            }
+            channel.force(true);
+            channel.close();
+            channel = null;
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            if (channel != null) {
+                channel.close();
+            }
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        byte[] bytes;
+        ByteBuffer buffer;
+        bytes = version.getBytes(StandardCharsets.UTF_8);
+        buffer = ByteBuffer.allocate(MAGIC.length + 5 + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).put((byte) bytes.length).put(bytes);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Appends a record to the end of the file.
+     */
+    private void append(Key key, double result) throws IOException {
+        byte[] method;
+        ByteBuffer buffer;
+        method = key.method.getBytes(StandardCharsets.UTF_8);
+        if (method.length > 255) {
+            throw new IllegalArgumentException("The name of the method \'" + key.method + "\' is too long.");
+        }
+        buffer = ByteBuffer.allocate(DIGEST_SIZE + 1 + method.length + 8).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(key.digest).put((byte) method.length).put(method).putDouble(result);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        records++;
+    }
+
+    /**
+     * Removes the least recently used results until there are no more than the maximum.
+     */
+    private void evict() {
+        Iterator<Key> keys;
+        keys = results.keySet().iterator();
+        while (results.size() > maxSize) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    /**
+     * The key of a result: the digest of a problem and the name of a method.
+     */
+    private static class Key {
+
+        private final byte[] digest;
+        private final String method;
+        private final int hash;
+
+        Key(byte[] digest, String method) {
+            this.digest = digest;
+            this.method = method;
+            hash = 31 * Arrays.hashCode(digest) + method.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            Key other;
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            other = (Key) obj;
+            return Arrays.equals(digest, other.digest) && method.equals(other.method);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
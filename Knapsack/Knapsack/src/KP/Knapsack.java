@@ -1,5 +1,6 @@
 package KP;
 
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -26,15 +27,23 @@ public class Knapsack {
         items = new LinkedList();
     }
 
+    /**
+     * Creates a new instance of <code>Knapsack</code> without any state, for the subclasses that
+     * keep their own and override every method that uses it.
+     */
+    Knapsack() {
+        items = null;
+    }
+
     /**
      * Creates a new instance of <code>Knapsack</code> from an existing instance (copy constructor).
      * <p>
      * @param knapsack The instance of <code>Knapsack</code> to copy to this instance.
      */
     public Knapsack(Knapsack knapsack) {        
-        capacity = knapsack.capacity;
-        profit = knapsack.profit;
-        items = new LinkedList(knapsack.items);
+        capacity = knapsack.getCapacity();
+        profit = knapsack.getProfit();
+        items = new LinkedList(Arrays.asList(knapsack.getItems()));
     }
 
     /**
@@ -1,9 +1,8 @@
 package KP;
 
-import Utils.Files;
+import KP.IO.MappedProblemParser;
 import java.text.DecimalFormat;
 import java.util.List;
-import java.util.StringTokenizer;
 
 /**
  * Provides the methods to create and use knapsack problems.
@@ -15,7 +14,10 @@ public class KnapsackProblem {
 
     private final int capacity;
     private final String fileName;
-    private final Item[] items;
+    private final int[] weights;
+    private final double[] profits;
+    private final double[] profitsPerWeightUnit;
+    private volatile Item[] items;
 
     /**
      * Creates a new instance of <code>KnapsackProblem</code>.
@@ -23,31 +25,40 @@ public class KnapsackProblem {
      * @param fileName The name of the file to initialize this instance.
      */
     public KnapsackProblem(String fileName) {
-        int weight, i;
-        double profit;
-        String string;
-        StringTokenizer fileTokenizer, lineTokenizer;
-        string = Files.load(fileName);        
-        fileTokenizer = new StringTokenizer(string, "\n");        
-        lineTokenizer = new StringTokenizer(fileTokenizer.nextToken().trim(), ", \t");
-        items = new Item[Integer.parseInt(lineTokenizer.nextToken())];
-        capacity = Integer.parseInt(lineTokenizer.nextToken());
-        //items = new Item[20];
-        //capacity = 50;
-        /*
-         * Reads the information about the items.
-         */
-        i = 0;        
-        while (fileTokenizer.hasMoreTokens()) {
-            lineTokenizer = new StringTokenizer(fileTokenizer.nextToken().trim(), ", \t");
-            weight = Integer.parseInt(lineTokenizer.nextToken().trim());            
-            profit = Double.parseDouble(lineTokenizer.nextToken().trim());            
-            items[i] = new Item(i, profit, weight);
-            i++;
-        }
-        this.fileName = fileName.substring(fileName.lastIndexOf('/') + 1);
-    }    
-    
+        this(MappedProblemParser.parse(fileName));
+    }
+
+    /**
+     * Creates a new instance of <code>KnapsackProblem</code> from the weights and the profits of
+     * its items. The arrays are kept by this instance (they are not copied) and must not be
+     * modified.
+     * <p>
+     * @param weights The weights of the items.
+     * @param profits The profits of the items.
+     * @param capacity The capacity of the knapsack.
+     * @param id The unique identifier of this instance.
+     */
+    public KnapsackProblem(int[] weights, double[] profits, int capacity, String id) {
+        this.weights = weights;
+        this.profits = profits;
+        this.capacity = capacity;
+        profitsPerWeightUnit = ratios(weights, profits);
+        fileName = id;
+    }
+
+    /**
+     * Creates a new instance of <code>KnapsackProblem</code> that shares the items of an existing
+     * instance.
+     */
+    private KnapsackProblem(KnapsackProblem problem) {
+        capacity = problem.capacity;
+        weights = problem.weights;
+        profits = problem.profits;
+        profitsPerWeightUnit = problem.profitsPerWeightUnit;
+        items = problem.items;
+        fileName = problem.fileName;
+    }
+
     /**
      * Creates a new instance of <code>KnapsackProblem</code>.
      * <p>
@@ -58,13 +69,31 @@ public class KnapsackProblem {
         int i;
         this.capacity = capacity;
         this.items = new Item[items.size()];
+        weights = new int[items.size()];
+        profits = new double[items.size()];
         i = 0;
         for (Item item : items) {
+            weights[i] = item.getWeight();
+            profits[i] = item.getProfit();
             this.items[i++] = item;
         }
+        profitsPerWeightUnit = ratios(weights, profits);
         fileName =  "Not provided";
     }
 
+    /**
+     * Computes the profit per weight unit of every item (as in
+     * <code>Item.getProfitPerWeightUnit()</code>).
+     */
+    private static double[] ratios(int[] weights, double[] profits) {
+        double[] ratios;
+        ratios = new double[weights.length];
+        for (int i = 0; i < ratios.length; i++) {
+            ratios[i] = profits[i] / weights[i];
+        }
+        return ratios;
+    }
+
     /**
      * Returns the capacity of the knapsack in this knapsack problem.
      * <p>
@@ -80,7 +109,7 @@ public class KnapsackProblem {
      * @return The number of items in this knapsack problem.
      */
     public int getNbItems() {
-        return items.length;
+        return weights.length;
     }
 
     /**
@@ -89,9 +118,76 @@ public class KnapsackProblem {
      * @return The items in this knapsack problem.
      */
     public Item[] getItems() {
+        Item[] tmp, source;
+        source = items();
+        tmp = new Item[source.length];
+        System.arraycopy(source, 0, tmp, 0, tmp.length);
+        return tmp;
+    }
+
+    /**
+     * Returns the item at the position provided in this knapsack problem.
+     * <p>
+     * @param index The position of the item.
+     * @return The item at the position provided in this knapsack problem.
+     */
+    public Item getItem(int index) {
+        return items()[index];
+    }
+
+    /**
+     * Returns the weights of the items in this knapsack problem, in the order of the items.
+     * <p>
+     * The array is shared by this instance (it is not copied) and must not be modified.
+     * <p>
+     * @return The weights of the items in this knapsack problem.
+     */
+    public int[] getWeights() {
+        return weights;
+    }
+
+    /**
+     * Returns the profits of the items in this knapsack problem, in the order of the items.
+     * <p>
+     * The array is shared by this instance (it is not copied) and must not be modified.
+     * <p>
+     * @return The profits of the items in this knapsack problem.
+     */
+    public double[] getProfits() {
+        return profits;
+    }
+
+    /**
+     * Returns the profit per weight unit of the items in this knapsack problem, in the order of
+     * the items.
+     * <p>
+     * The array is shared by this instance (it is not copied) and must not be modified.
+     * <p>
+     * @return The profit per weight unit of the items in this knapsack problem.
+     */
+    public double[] getProfitsPerWeightUnit() {
+        return profitsPerWeightUnit;
+    }
+
+    /**
+     * Returns the items of this knapsack problem, creating them from the weights and profits the
+     * first time they are requested.
+     */
+    private Item[] items() {
         Item[] tmp;
-        tmp = new Item[items.length];
-        System.arraycopy(items, 0, tmp, 0, tmp.length);
+        tmp = items;
+        if (tmp == null) {
+            synchronized (this) {
+                tmp = items;
+                if (tmp == null) {
+                    tmp = new Item[weights.length];
+                    for (int i = 0; i < tmp.length; i++) {
+                        tmp[i] = new Item(i, profits[i], weights[i]);
+                    }
+                    items = tmp;
+                }
+            }
+        }
         return tmp;
     }
 
@@ -113,10 +209,10 @@ public class KnapsackProblem {
         StringBuilder string;
         DecimalFormat format;
         string = new StringBuilder();        
-        string.append(items.length).append(", ").append(capacity).append("\r\n");
+        string.append(weights.length).append(", ").append(capacity).append("\r\n");
         format = new DecimalFormat("0.000");
-        for (Item item : items) {
-            string.append(item.getWeight()).append(", ").append(format.format(item.getProfit())).append("\r\n");
+        for (int i = 0; i < weights.length; i++) {
+            string.append(weights[i]).append(", ").append(format.format(profits[i])).append("\r\n");
         }
         Utils.Files.save(string.toString().trim(), fileName);
     }
@@ -129,8 +225,8 @@ public class KnapsackProblem {
     public String toString() {
         StringBuilder string;
         string = new StringBuilder();
-        string.append(items.length).append(", ").append(capacity).append("\n");
-        for (Item item : items) {
+        string.append(weights.length).append(", ").append(capacity).append("\n");
+        for (Item item : items()) {
             string.append(item.toString()).append("\n");
         }
         return string.toString().trim();
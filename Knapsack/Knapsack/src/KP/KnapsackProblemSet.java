@@ -1,10 +1,17 @@
 package KP;
 
+import KP.IO.ProblemArchive;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.stream.IntStream;
 
 /**
  * Provides the methods to create and handle sets of knapsack problem instances.
@@ -12,9 +19,13 @@ import java.util.Random;
  * @author Jose Carlos Ortiz Bayliss (jcobayliss@gmail.com)
  * @version 1.0
  */
-public class KnapsackProblemSet {
+public class KnapsackProblemSet implements Iterable<KnapsackProblem>, AutoCloseable {
     
+    private final String folderName;
+    private final List<String> fileNames;
+    private final ProblemArchive archive;
     private final KnapsackProblem[] instances;
+    private final Map<String, KnapsackProblem> cache;
     
     /**
      * Defines the fraction of the set that will be used according to the purpose of the instances.
@@ -30,11 +41,32 @@ public class KnapsackProblemSet {
          */
         TEST
     }
+
+    /**
+     * Defines how the instances of the set are loaded.
+     */
+    public enum Loading {
+
+        /**
+         * All the instances are loaded one by one when the set is created.
+         */
+        EAGER,
+        /**
+         * All the instances are loaded in parallel when the set is created.
+         */
+        PARALLEL,
+        /**
+         * Every instance is loaded the first time it is requested, and only the most recently used
+         * ones are kept in memory.
+         */
+        LAZY
+    }
     
     /**
      * Creates a new instance of <code>KnapsackProblemSet</code>.
      * <p>
-     * @param folderName The name of the folder where the instances are contained.     
+     * @param folderName The name of the folder where the instances are contained, or the name of
+     * an archive created with <code>ProblemArchive.pack</code>.
      */
     public KnapsackProblemSet(String folderName) {
         this(folderName, Subset.TEST, 1.0, 0);
@@ -43,21 +75,52 @@ public class KnapsackProblemSet {
     /**
      * Creates a new instance of <code>KnapsackProblemSet</code>.
      * <p>
-     * @param folderName The name of the folder where the instances are contained.     
+     * The instances are read from the files in a folder or from an archive. In both cases they are
+     * sorted by name before selecting the subset, so the same instances are selected from a folder
+     * and from its archive.
+     * <p>
+     * @param folderName The name of the folder where the instances are contained, or the name of
+     * an archive created with <code>ProblemArchive.pack</code>.
      * @param type The type of set to be created (training or test).
      * @param proportion The proportion of the instances used for training.
      * @param seed The seed to initialize the random number generator.
      */
     public KnapsackProblemSet(String folderName, Subset type, double proportion, long seed) {
-        int i, n;
+        this(folderName, type, proportion, seed, Loading.EAGER, 0);
+    }
+
+    /**
+     * Creates a new instance of <code>KnapsackProblemSet</code>.
+     * <p>
+     * The subset of instances selected does not depend on the way they are loaded. When the
+     * instances are loaded lazily from an archive, the archive stays open to load them, so the set
+     * must be closed with {@link #close()} when it is no longer used.
+     * <p>
+     * @param folderName The name of the folder where the instances are contained, or the name of
+     * an archive created with <code>ProblemArchive.pack</code>.
+     * @param type The type of set to be created (training or test).
+     * @param proportion The proportion of the instances used for training.
+     * @param seed The seed to initialize the random number generator.
+     * @param loading The way the instances are loaded.
+     * @param cacheSize The maximum number of instances kept in memory when they are loaded lazily
+     * (at least one). It is ignored by the other ways of loading.
+     */
+    public KnapsackProblemSet(String folderName, Subset type, double proportion, long seed, Loading loading, int cacheSize) {
+        int n;
         List<String> fileNames;
         File file = new File(folderName);
-        if (!file.exists() || !file.isDirectory()) {
-            System.err.println("The path \'" + folderName + "\'is not a valid directory.");
+        if (!file.exists()) {
+            System.err.println("The path \'" + folderName + "\'is not a valid directory nor an instance archive.");
             System.err.println("The system will halt.");
             System.exit(1);
         }
-        fileNames = Arrays.asList(file.list());
+        if (file.isDirectory()) {
+            archive = null;
+            fileNames = Arrays.asList(file.list());
+        } else {
+            archive = new ProblemArchive(folderName);
+            fileNames = new ArrayList<>(archive.getNames());
+        }
         Collections.sort(fileNames);
         if (proportion != 1.0) {
             n = (int) Math.ceil(proportion * fileNames.size());
@@ -68,14 +131,48 @@ public class KnapsackProblemSet {
                 fileNames = fileNames.subList(n, fileNames.size());
             }
         }
-        i = 0;
-        instances = new KnapsackProblem[fileNames.size()];
-        for (String fileName : fileNames) {
-            System.out.print("Loading \'" + folderName + "/" + fileName + "\'...");            
-            instances[i++] = new KnapsackProblem(folderName + "/" + fileName);            
-            System.out.println(" done.");
+        this.folderName = folderName;
+        this.fileNames = Collections.unmodifiableList(new ArrayList<>(fileNames));
+        switch (loading) {
+            case LAZY:
+                instances = null;
+                cache = new LinkedHashMap<String, KnapsackProblem>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, KnapsackProblem> eldest) {
+                        return size() > Math.max(cacheSize, 1);
+                    }
+                };
+                break;
+            case PARALLEL:
+                cache = null;
+                instances = new KnapsackProblem[fileNames.size()];
+                System.out.print("Loading " + instances.length + " instances from \'" + folderName + "\'...");
+                IntStream.range(0, instances.length).parallel().forEach(i -> instances[i] = load(this.fileNames.get(i)));
+                System.out.println(" done.");
+                break;
+            default:
+                cache = null;
+                instances = new KnapsackProblem[fileNames.size()];
+                for (int i = 0; i < instances.length; i++) {
+                    System.out.print("Loading \'" + folderName + "/" + fileNames.get(i) + "\'...");            
+                    instances[i] = load(fileNames.get(i));
+                    System.out.println(" done.");
+                }
+        }
+        if (archive != null && instances != null) {
+            archive.close();
         }
     }
+
+    /**
+     * Loads an instance from the folder or the archive of this set.
+     */
+    private KnapsackProblem load(String fileName) {
+        if (archive == null) {
+            return new KnapsackProblem(folderName + "/" + fileName);
+        }
+        return archive.get(fileName);
+    }
     
     /**
      * Returns the size of this set.
@@ -84,16 +181,98 @@ public class KnapsackProblemSet {
      * contained.
      */
     public int getSize() {
-        return instances.length;
+        return fileNames.size();
     }
 
     /**
-     * Returns the instances in this set.
+     * Returns the names of the files (or of the archive entries) of the instances in this set.
+     * <p>
+     * @return The names of the instances in this set, in the order of the set.
+     */
+    public List<String> getFileNames() {
+        return fileNames;
+    }
+
+    /**
+     * Returns an instance in this set. When the instances are loaded lazily, the instance is loaded
+     * if it is not in the cache, and the least recently used instance may be removed from it.
+     * <p>
+     * @param index The position of the instance in this set.
+     * @return The instance at the position provided.
+     */
+    public KnapsackProblem getInstance(int index) {
+        String fileName;
+        KnapsackProblem problem;
+        if (instances != null) {
+            return instances[index];
+        }
+        fileName = fileNames.get(index);
+        synchronized (cache) {
+            problem = cache.get(fileName);
+        }
+        if (problem == null) {
+            problem = load(fileName);
+            synchronized (cache) {
+                cache.put(fileName, problem);
+            }
+        }
+        return problem;
+    }
+
+    /**
+     * Returns the instances in this set. When the instances are loaded lazily, all of them are
+     * loaded and kept in the array returned; use {@link #getInstance(int)} or {@link #iterator()} to
+     * keep only the cached ones in memory.
      * <p>
      * @return The instances in this set.
      */
     public KnapsackProblem[] getInstances() {
-        return instances;
+        KnapsackProblem[] tmp;
+        if (instances != null) {
+            return instances;
+        }
+        tmp = new KnapsackProblem[fileNames.size()];
+        for (int i = 0; i < tmp.length; i++) {
+            tmp[i] = getInstance(i);
+        }
+        return tmp;
+    }
+
+    /**
+     * Closes the archive of this set, if any. The instances already loaded can still be used, but
+     * the instances that are loaded lazily can no longer be loaded.
+     */
+    @Override
+    public void close() {
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    /**
+     * Returns an iterator over the instances in this set, which loads them through
+     * {@link #getInstance(int)}.
+     * <p>
+     * @return An iterator over the instances in this set.
+     */
+    @Override
+    public Iterator<KnapsackProblem> iterator() {
+        return new Iterator<KnapsackProblem>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < fileNames.size();
+            }
+
+            @Override
+            public KnapsackProblem next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getInstance(next++);
+            }
+        };
     }
     
 }
@@ -0,0 +1,67 @@
+package KP.Metrics;
+
+/**
+ * Records the solves and the heuristic switches as events of an external recorder.
+ * <p>
+ * The recorder used by {@link SolveRecorder} is {@link Metrics#getEventRecorder()}. When the
+ * project is compiled with a JDK that has flight recorder (the module <code>jdk.jfr</code>), the
+ * build also compiles <code>FlightRecorder</code> (in the <code>src-jfr</code> folder), which
+ * records them as flight recorder events. It is loaded by reflection, so the rest of the project
+ * does not depend on it; without it, {@link EventRecorder.None} discards the events.
+ * <p>
+ * @version 1.0
+ */
+interface EventRecorder {
+
+    /**
+     * Starts the event of a solve.
+     * <p>
+     * @return The event started, or <code>null</code> if no recording wants it.
+     */
+    Object beginSolve();
+
+    /**
+     * Finishes the event of a solve and records its totals.
+     * <p>
+     * @param started The event returned by {@link #beginSolve()}.
+     * @param solver The name of the solver.
+     * @param problem The identifier of the problem.
+     * @param nextItemCalls The number of calls to <code>nextItem</code>.
+     * @param featureCalls The number of calls to <code>getFeature</code>.
+     * @param switches The number of heuristic switches.
+     * @param cells The number of dynamic programming cells.
+     * @param allocated The bytes allocated by the solving thread, or -1 if they are unknown.
+     */
+    void endSolve(Object started, String solver, String problem, long nextItemCalls, long featureCalls, long switches, long cells, long allocated);
+
+    /**
+     * Records a change of the heuristic chosen by a heuristic selector.
+     * <p>
+     * @param solver The name of the solver.
+     * @param problem The identifier of the problem.
+     * @param from The heuristic of the previous step.
+     * @param to The heuristic of the next step.
+     * @param step The number of items selected before the switch.
+     */
+    void heuristicSwitch(String solver, String problem, String from, String to, long step);
+
+    /**
+     * Discards the events.
+     */
+    final class None implements EventRecorder {
+
+        @Override
+        public Object beginSolve() {
+            return null;
+        }
+
+        @Override
+        public void endSolve(Object started, String solver, String problem, long nextItemCalls, long featureCalls, long switches, long cells, long allocated) {
+        }
+
+        @Override
+        public void heuristicSwitch(String solver, String problem, String from, String to, long step) {
+        }
+    }
+
+}
@@ -0,0 +1,251 @@
+package KP.Metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the counters of the solvers of this project for the whole run of the program.
+ * <p>
+ * Every solve is measured by a {@link SolveRecorder}, which counts in plain fields and publishes
+ * its totals here once, when the solve ends: the number of solves and their time per solver, and
+ * the number of calls to <code>nextItem</code>, heuristic switches, dynamic programming cells and
+ * bytes allocated by the solving thread. The calls to <code>getFeature</code> are counted here
+ * directly, by name. All the counters are <code>LongAdder</code>s, so threads solving in
+ * parallel do not contend, and the cost is low enough to leave them on. They can be turned off
+ * with <code>-Dknapsack.metrics=false</code>.
+ * <p>
+ * When a flight recording is running (for example, with
+ * <code>-XX:StartFlightRecording=filename=run.jfr</code>), every solve and every heuristic switch
+ * is also recorded as an event of the category <code>Knapsack</code> (see {@link EventRecorder}).
+ * Builds and virtual machines without flight recorder only keep the counters.
+ * <p>
+ * @version 1.0
+ */
+public class Metrics {
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty("knapsack.metrics"));
+    private static final EventRecorder EVENTS = loadEventRecorder();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static final Map<String, Timing> SOLVES = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> FEATURES = new ConcurrentHashMap<>();
+    private static final LongAdder NEXT_ITEM_CALLS = new LongAdder();
+    private static final LongAdder HEURISTIC_SWITCHES = new LongAdder();
+    private static final LongAdder CELLS = new LongAdder();
+    private static final LongAdder ALLOCATED_BYTES = new LongAdder();
+
+    private Metrics() {
+    }
+
+    /**
+     * Revises if the metrics are enabled.
+     * <p>
+     * @return <code>true</code> if the metrics are enabled, <code>false</code> otherwise.
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Starts measuring a solve.
+     * <p>
+     * @param solver The name of the solver (and the method it uses).
+     * @param problem The identifier of the problem.
+     * @return The recorder of the solve.
+     */
+    public static SolveRecorder begin(String solver, String problem) {
+        return new SolveRecorder(solver, problem);
+    }
+
+    /**
+     * Counts a call to <code>getFeature</code>.
+     * <p>
+     * @param feature The name of the feature.
+     */
+    public static void countFeature(String feature) {
+        LongAdder counter;
+        if (!ENABLED) {
+            return;
+        }
+        counter = FEATURES.get(feature);
+        if (counter == null) {
+            counter = FEATURES.computeIfAbsent(feature, name -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    /**
+     * Returns the number of solves recorded for a solver.
+     * <p>
+     * @param solver The name of the solver.
+     * @return The number of solves recorded for the solver.
+     */
+    public static long getSolves(String solver) {
+        Timing timing;
+        timing = SOLVES.get(solver);
+        return timing == null ? 0 : timing.count.sum();
+    }
+
+    /**
+     * Returns the number of calls to <code>getFeature</code> recorded for a feature.
+     * <p>
+     * @param feature The name of the feature.
+     * @return The number of calls recorded for the feature.
+     */
+    public static long getFeatureCalls(String feature) {
+        LongAdder counter;
+        counter = FEATURES.get(feature);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /**
+     * Returns the number of calls to <code>nextItem</code> recorded.
+     * <p>
+     * @return The number of calls to <code>nextItem</code> recorded.
+     */
+    public static long getNextItemCalls() {
+        return NEXT_ITEM_CALLS.sum();
+    }
+
+    /**
+     * Returns the number of heuristic switches recorded.
+     * <p>
+     * @return The number of heuristic switches recorded.
+     */
+    public static long getHeuristicSwitches() {
+        return HEURISTIC_SWITCHES.sum();
+    }
+
+    /**
+     * Returns the number of dynamic programming cells recorded.
+     * <p>
+     * @return The number of dynamic programming cells recorded.
+     */
+    public static long getCells() {
+        return CELLS.sum();
+    }
+
+    /**
+     * Returns the number of bytes allocated by the solves recorded (only when the virtual machine
+     * measures the allocations of each thread).
+     * <p>
+     * @return The number of bytes allocated by the solves recorded.
+     */
+    public static long getAllocatedBytes() {
+        return ALLOCATED_BYTES.sum();
+    }
+
+    /**
+     * Clears all the counters.
+     */
+    public static void reset() {
+        SOLVES.clear();
+        FEATURES.clear();
+        NEXT_ITEM_CALLS.reset();
+        HEURISTIC_SWITCHES.reset();
+        CELLS.reset();
+        ALLOCATED_BYTES.reset();
+    }
+
+    /**
+     * Returns a report of all the counters, with one line per solver and per feature.
+     * <p>
+     * @return The report of all the counters.
+     */
+    public static String report() {
+        long count;
+        StringBuilder s;
+        s = new StringBuilder();
+        s.append(String.format("%-40s %10s %14s %12s %12s%n", "Solver", "Solves", "Total (ms)", "Mean (ms)", "Max (ms)"));
+        for (Map.Entry<String, Timing> entry : new TreeMap<>(SOLVES).entrySet()) {
+            count = entry.getValue().count.sum();
+            s.append(String.format("%-40s %10d %14.3f %12.3f %12.3f%n",
+                    entry.getKey(),
+                    count,
+                    entry.getValue().nanos.sum() / 1e6,
+                    count == 0 ? 0 : entry.getValue().nanos.sum() / 1e6 / count,
+                    entry.getValue().max.get() / 1e6));
+        }
+        s.append(String.format("%-40s %10d%n", "nextItem calls", NEXT_ITEM_CALLS.sum()));
+        s.append(String.format("%-40s %10d%n", "Heuristic switches", HEURISTIC_SWITCHES.sum()));
+        s.append(String.format("%-40s %10d%n", "Dynamic programming cells", CELLS.sum()));
+        s.append(String.format("%-40s %10d%n", "Bytes allocated", ALLOCATED_BYTES.sum()));
+        for (Map.Entry<String, LongAdder> entry : new TreeMap<>(FEATURES).entrySet()) {
+            s.append(String.format("%-40s %10d%n", "getFeature(" + entry.getKey() + ")", entry.getValue().sum()));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the current thread, or -1 if the virtual
+     * machine does not measure it.
+     */
+    static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads;
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the recorder of the events of the solves.
+     */
+    static EventRecorder getEventRecorder() {
+        return EVENTS;
+    }
+
+    /**
+     * Adds the totals of a solve to the counters.
+     */
+    static void publish(String solver, long nanos, long nextItemCalls, long switches, long cells, long allocated) {
+        Timing timing;
+        timing = SOLVES.get(solver);
+        if (timing == null) {
+            timing = SOLVES.computeIfAbsent(solver, name -> new Timing());
+        }
+        timing.count.increment();
+        timing.nanos.add(nanos);
+        timing.max.accumulate(nanos);
+        NEXT_ITEM_CALLS.add(nextItemCalls);
+        HEURISTIC_SWITCHES.add(switches);
+        CELLS.add(cells);
+        if (allocated > 0) {
+            ALLOCATED_BYTES.add(allocated);
+        }
+    }
+
+    /**
+     * Returns the flight recorder if the metrics are enabled and the JVM can load it, or a
+     * recorder that discards the events.
+     */
+    private static EventRecorder loadEventRecorder() {
+        if (!ENABLED) {
+            return new EventRecorder.None();
+        }
+        try {
+            return (EventRecorder) Class.forName("KP.Metrics.FlightRecorder").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return new EventRecorder.None();
+        }
+    }
+
+    /**
+     * The number of solves of a solver and their time.
+     */
+    private static class Timing {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+    }
+
+}
@@ -0,0 +1,158 @@
+package KP.Metrics;
+
+/**
+ * Keeps the time spent in each phase of a solve, in nanoseconds.
+ * <p>
+ * A solver fills a new breakdown on every solve. Breakdowns can also be added together, to
+ * aggregate the solves of a method over many instances. This class is not thread safe.
+ * <p>
+ * @version 1.0
+ */
+public class PhaseTimes {
+
+    /**
+     * Defines the phases of a solve.
+     */
+    public enum Phase {
+
+        /**
+         * Computing the features requested by a heuristic selector.
+         */
+        FEATURES,
+        /**
+         * Choosing the heuristic for the next step, excluding the features.
+         */
+        HEURISTIC_SELECTION,
+        /**
+         * Finding the next item to pack.
+         */
+        ITEM_SELECTION,
+        /**
+         * Packing the items and updating the remaining ones.
+         */
+        PACKING,
+        /**
+         * Fixing the items in or out of the solution before an exact method.
+         */
+        REDUCTION,
+        /**
+         * Filling the dynamic programming table.
+         */
+        TABLE_FILL,
+        /**
+         * Tracing the dynamic programming table back to the packed items.
+         */
+        TRACEBACK
+
+    }
+
+    private final long[] nanos;
+    private int count;
+
+    /**
+     * Creates a new instance of <code>PhaseTimes</code> with no time in any phase.
+     */
+    public PhaseTimes() {
+        nanos = new long[Phase.values().length];
+    }
+
+    /**
+     * Creates a new instance of <code>PhaseTimes</code> with the same times as the one provided.
+     * <p>
+     * @param times The times to copy.
+     */
+    public PhaseTimes(PhaseTimes times) {
+        nanos = times.nanos.clone();
+        count = times.count;
+    }
+
+    /**
+     * Adds time to a phase.
+     * <p>
+     * @param phase The phase.
+     * @param nanos The time to add, in nanoseconds.
+     */
+    public void add(Phase phase, long nanos) {
+        this.nanos[phase.ordinal()] += nanos;
+    }
+
+    /**
+     * Adds the times of another breakdown to this one, phase by phase.
+     * <p>
+     * @param times The times to add.
+     */
+    public void add(PhaseTimes times) {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] += times.nanos[i];
+        }
+        count += Math.max(times.count, 1);
+    }
+
+    /**
+     * Returns the time spent in a phase.
+     * <p>
+     * @param phase The phase.
+     * @return The time spent in the phase, in nanoseconds.
+     */
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Returns the time spent in all the phases.
+     * <p>
+     * @return The time spent in all the phases, in nanoseconds.
+     */
+    public long getTotal() {
+        long total;
+        total = 0;
+        for (long value : nanos) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of breakdowns added to this one (zero for the breakdown of a single
+     * solve).
+     * <p>
+     * @return The number of breakdowns added to this one.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Sets the time of every phase to zero.
+     */
+    public void clear() {
+        for (int i = 0; i < nanos.length; i++) {
+            nanos[i] = 0;
+        }
+        count = 0;
+    }
+
+    /**
+     * Returns the string representation of this breakdown: the share of the total time of every
+     * phase with some time.
+     * <p>
+     * @return The string representation of this breakdown.
+     */
+    @Override
+    public String toString() {
+        long total;
+        StringBuilder s;
+        total = getTotal();
+        s = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            if (nanos[phase.ordinal()] > 0) {
+                if (s.length() > 0) {
+                    s.append(", ");
+                }
+                s.append(String.format("%s %.1f%%", phase, nanos[phase.ordinal()] * 100.0 / total));
+            }
+        }
+        return s.toString();
+    }
+
+}
@@ -0,0 +1,88 @@
+package KP.Metrics;
+
+/**
+ * Measures a single solve. The solver counts its work in this recorder while it runs, without any
+ * synchronization, and calls {@link #end()} when it finishes, which publishes the totals to
+ * {@link Metrics} and commits the flight recorder event of the solve.
+ * <p>
+ * A recorder must be used by the thread that created it, since the allocated bytes are measured
+ * for that thread.
+ * <p>
+ * @version 1.0
+ */
+public class SolveRecorder {
+
+    private final String solver, problem;
+    private final long start, startAllocated;
+    private final Object event;
+    private long nextItemCalls, featureCalls, switches, cells;
+    private String heuristic;
+
+    SolveRecorder(String solver, String problem) {
+        this.solver = solver;
+        this.problem = problem;
+        if (Metrics.isEnabled()) {
+            event = Metrics.getEventRecorder().beginSolve();
+            startAllocated = Metrics.allocatedBytes();
+            start = System.nanoTime();
+        } else {
+            event = null;
+            startAllocated = -1;
+            start = 0;
+        }
+    }
+
+    /**
+     * Counts a call to <code>nextItem</code>.
+     */
+    public void nextItem() {
+        nextItemCalls++;
+    }
+
+    /**
+     * Counts a call to <code>getFeature</code> made during this solve.
+     */
+    public void feature() {
+        featureCalls++;
+    }
+
+    /**
+     * Records the heuristic chosen by a heuristic selector for the next step. A change with
+     * respect to the previous step counts as a switch.
+     * <p>
+     * @param heuristic The name of the heuristic.
+     */
+    public void heuristic(String heuristic) {
+        if (this.heuristic != null && !this.heuristic.equals(heuristic)) {
+            switches++;
+            Metrics.getEventRecorder().heuristicSwitch(solver, problem, this.heuristic, heuristic, nextItemCalls);
+        }
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * Counts dynamic programming cells.
+     * <p>
+     * @param cells The number of cells computed.
+     */
+    public void cells(long cells) {
+        this.cells += cells;
+    }
+
+    /**
+     * Finishes the solve and publishes its totals.
+     */
+    public void end() {
+        long nanos, allocated;
+        if (!Metrics.isEnabled()) {
+            return;
+        }
+        nanos = System.nanoTime() - start;
+        allocated = startAllocated < 0 ? -1 : Metrics.allocatedBytes() - startAllocated;
+        Metrics.publish(solver, nanos, nextItemCalls, switches, cells, allocated);
+        if (event != null) {
+            Metrics.getEventRecorder().endSolve(event, solver, problem, nextItemCalls, featureCalls, switches, cells, allocated);
+        }
+    }
+
+}
@@ -8,11 +8,14 @@ import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic;
 import KP.Item;
 import KP.Knapsack;
 import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.PhaseTimes;
+import KP.Metrics.PhaseTimes.Phase;
+import KP.Metrics.SolveRecorder;
 import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
-import Utils.Statistical;
+import KP.Solvers.Constructive.Heuristics.HeuristicIndex;
 import Utils.Timer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -23,8 +26,46 @@ import java.util.List;
  */
 public class ConstructiveSolver implements FeatureManager {
 
+    /**
+     * Defines the dynamic programming methods available to solve the problem exactly.
+     */
+    public enum DynamicProgramming {
+
+        /**
+         * Keeps one row of values and a bit-packed decision table over all items and capacities.
+         */
+        TABLE,
+        /**
+         * Keeps a few rows of values and reconstructs the solution by divide and conquer.
+         */
+        LINEAR_SPACE,
+        /**
+         * Keeps a few rows of minimum weights indexed by profit instead of by capacity and
+         * reconstructs the solution by divide and conquer. The profits must be integers.
+         */
+        PROFIT_INDEXED,
+        /**
+         * Keeps the reachable sums of weights as a bit set updated 64 sums at a time, and
+         * reconstructs the solution by divide and conquer. The profits must be proportional to
+         * the weights.
+         */
+        SUBSET_SUM,
+        /**
+         * Uses the subset sum bit set when the profits are proportional to the weights, the rows
+         * indexed by profit when the profits are integers and they cost much less than the table,
+         * and the table otherwise.
+         */
+        AUTOMATIC
+
+    }
+
+    private final KnapsackProblem problem;
     private final Knapsack knapsack;
-    private final List<Item> items;
+    private final HeuristicIndex index;
+    private FeatureTracker features;
+    private SolveRecorder recorder;
+    private final PhaseTimes phases;
+    private long nested;
     final Timer timer;
 
     /**
@@ -34,9 +75,10 @@ public class ConstructiveSolver implements FeatureManager {
      * <p>
      */
     public ConstructiveSolver(KnapsackProblem problem) {
+        this.problem = problem;
         knapsack = new Knapsack(problem.getCapacity());
-        items = new ArrayList(problem.getNbItems());
-        items.addAll(Arrays.asList(problem.getItems()));
+        index = new HeuristicIndex(problem);
+        phases = new PhaseTimes();
         timer = new Timer();
     }
 
@@ -48,14 +90,22 @@ public class ConstructiveSolver implements FeatureManager {
      * @return The knapsack that contains the solution to the problem.
      */
     public Knapsack solve(ConstructiveHeuristic heuristic) {
-        Item item;
+        int item;
+        long time;
+        begin("Heuristic " + heuristic);
         timer.start(-1);
-        item = heuristic.nextItem(knapsack, items);        
-        while (item != null) {
-            knapsack.pack(item);
-            items.remove(item);
-            item = heuristic.nextItem(knapsack, items);
+        time = System.nanoTime();
+        item = heuristic.nextItem(knapsack, index);
+        recorder.nextItem();
+        time = lap(Phase.ITEM_SELECTION, time);
+        while (item != -1) {
+            pack(item);
+            time = lap(Phase.PACKING, time);
+            item = heuristic.nextItem(knapsack, index);
+            recorder.nextItem();
+            time = lap(Phase.ITEM_SELECTION, time);
         }
+        end();
         return knapsack;
     }
 
@@ -68,76 +118,397 @@ public class ConstructiveSolver implements FeatureManager {
      */
     public Knapsack solve(HeuristicSelector selector) {
         ConstructiveHeuristic heuristic;
-        Item item;
+        String name;
+        int item;
+        long time;
         heuristic = null;
 //        solve(); // USING DYNAMIC PROGRAMMING
+        begin("Selector " + selector.getClass().getSimpleName());
         try {
-            heuristic = getHeuristic(selector.getHeuristic(this));
+            time = System.nanoTime();
+            name = selector.getHeuristic(this);
+            recorder.heuristic(name);
+            heuristic = getHeuristic(name);
+            time = lap(Phase.HEURISTIC_SELECTION, time);
             timer.start(-1);
-            item = heuristic.nextItem(knapsack, items);
-            while (item != null) {
-                knapsack.pack(item);
-                items.remove(item);
-                heuristic = getHeuristic(selector.getHeuristic(this));
-                item = heuristic.nextItem(knapsack, items);
+            item = heuristic.nextItem(knapsack, index);
+            recorder.nextItem();
+            time = lap(Phase.ITEM_SELECTION, time);
+            while (item != -1) {
+                pack(item);
+                time = lap(Phase.PACKING, time);
+                name = selector.getHeuristic(this);
+                recorder.heuristic(name);
+                heuristic = getHeuristic(name);
+                time = lap(Phase.HEURISTIC_SELECTION, time);
+                item = heuristic.nextItem(knapsack, index);
+                recorder.nextItem();
+                time = lap(Phase.ITEM_SELECTION, time);
             }
         } catch (NoSuchHeuristicException e) {
             System.out.println(e);
             System.out.println("The system will halt.");
             System.exit(1);
         }
+        end();
         return knapsack;
     }
 
     /**
-     * Solves a given instance by using dynamic programming.
+     * Solves the knapsack problem approximately, with a fully polynomial time approximation scheme.
+     * <p>
+     * The profits are divided by epsilon times a lower bound of the optimum over the number of
+     * items and rounded down, and the problem with the rounded profits is solved exactly by
+     * dynamic programming over the profits (see {@link ProfitIndexedDP}). Rounding loses less than
+     * epsilon times the optimum, so the profit of the solution is at least (1 - epsilon) times the
+     * optimum. The row is at most 2n / epsilon cells long, so the cost is O(n<sup>2</sup> /
+     * epsilon) whatever the capacity and the profits: a smaller epsilon gives a better solution in
+     * more time.
+     * <p>
+     * @param epsilon The largest fraction of the optimum that may be lost, between 0 and 1.
+     * @return The knapsack with the packed items.
+     */
+    public Knapsack solve(double epsilon) {
+        if (!(epsilon > 0 && epsilon < 1)) {
+            throw new IllegalArgumentException("The value of epsilon must be between 0 and 1 (" + epsilon + " was provided).");
+        }
+        begin("FPTAS " + epsilon);
+        solveApproximate(epsilon);
+        end();
+        return knapsack;
+    }
+
+    /**
+     * Solves a given instance by using dynamic programming, indexed by capacity (decision table)
+     * or by profit, whichever costs less (see {@link DynamicProgramming#AUTOMATIC}).
      * <p>
      * @return The knapsack with the packed items.
      */
     public Knapsack solve() {
-        int row;
-        double tmpProfit;
-        double[][] table;
-        Item item;
+        return solve(DynamicProgramming.AUTOMATIC);
+    }
+
+    /**
+     * Solves a given instance by using the dynamic programming method provided.
+     * <p>
+     * @param method The dynamic programming method used to solve the knapsack problem.
+     * @return The knapsack with the packed items.
+     */
+    public Knapsack solve(DynamicProgramming method) {
+        if (method == DynamicProgramming.AUTOMATIC) {
+            method = chooseDynamicProgramming();
+        }
+        if (method == DynamicProgramming.PROFIT_INDEXED && !hasIntegerProfits()) {
+            throw new IllegalArgumentException("The profits of the problem \'" + problem.getId() + "\' are not integers.");
+        }
+        if (method == DynamicProgramming.SUBSET_SUM && !hasProportionalProfits()) {
+            throw new IllegalArgumentException("The profits of the problem \'" + problem.getId() + "\' are not proportional to the weights.");
+        }
+        begin("DP " + method);
+        switch (method) {
+            case LINEAR_SPACE:
+                solveLinearSpace();
+                break;
+            case PROFIT_INDEXED:
+                solveProfitIndexed();
+                break;
+            case SUBSET_SUM:
+                solveSubsetSum();
+                break;
+            default:
+                solveTable();
+        }
+        end();
+        return knapsack;
+    }
+
+    /**
+     * Solves a given instance by using dynamic programming.
+     * <p>
+     * The best profit for every capacity is kept in a single row that is updated in place for each
+     * item (by {@link TableKernel#INSTANCE}), while the take/skip decision of every cell is recorded
+     * in a bit-packed matrix (one bit per item and capacity). The matrix is then traced back from
+     * the full capacity to produce the solution.
+     * <p>
+     * @return The knapsack with the packed items.
+     */
+    private Knapsack solveTable() {
+        int n, capacity, row;
+        int[] weights, positions;
+        double[] values, profits;
+        long[][] decisions;
+        long time;
         timer.start(-1);
+        time = System.nanoTime();
+        positions = getPositions();
+        weights = getWeights();
+        profits = getProfits();
+        n = weights.length;
+        capacity = knapsack.getCapacity();
         /*
-         * Produces the table.
+         * Produces the value row and the decision matrix.
          */
-        table = new double[knapsack.getCapacity() + 1][items.size()];
-        for (int i = 0; i < table[0].length; i++) {
-            item = items.get(i);
-            for (int rowCapacity = 0; rowCapacity < table.length; rowCapacity++) {
-                if (item.getWeight() <= rowCapacity) {
-                    tmpProfit = item.getProfit();
-                    if (i == 0) {
-                        table[rowCapacity][i] = tmpProfit;
-                    } else {
-                        table[rowCapacity][i] = (int) Math.max(table[rowCapacity][i - 1], tmpProfit + table[rowCapacity - item.getWeight()][i - 1]);
-                    }
-                } else {
-                    if (i > 0) {
-                        table[rowCapacity][i] = table[rowCapacity][i - 1];
-                    }
-                }
+        values = new double[capacity + 1];
+        decisions = new long[n][];
+        for (int i = 0; i < n; i++) {
+            decisions[i] = new long[(capacity >>> 6) + 1];
+            if (weights[i] <= capacity) {
+                recorder.cells(capacity - weights[i] + 1);
             }
+            TableKernel.INSTANCE.pack(values, weights[i], profits[i], capacity, decisions[i]);
         }
+        time = lap(Phase.TABLE_FILL, time);
         /*
-         * Interprets the table to produce a solution.
+         * Interprets the decision matrix to produce a solution.
          */
-        row = knapsack.getCapacity();
-        for (int i = items.size() - 1; i > 0; i--) {
-            if (table[row][i] == table[row][i - 1]) {
-                // Do nothing.
-            } else {
-                item = items.remove(i);
-                knapsack.pack(item);
-                row = row - item.getWeight();
+        row = capacity;
+        for (int i = n - 1; i >= 0; i--) {
+            if ((decisions[i][row >>> 6] & (1L << row)) != 0) {
+                pack(positions[i]);
+                row = row - weights[i];
+            }
+        }
+        lap(Phase.TRACEBACK, time);
+        return knapsack;
+    }
+
+    /**
+     * Solves a given instance by using dynamic programming with memory linear in the capacity.
+     * <p>
+     * The solution is reconstructed by recursively splitting the items (see {@link LinearSpaceDP}),
+     * so the profit is the same as the one of the decision table at the cost of recomputing the
+     * rows of every level of the recursion.
+     * <p>
+     * @return The knapsack with the packed items.
+     */
+    private Knapsack solveLinearSpace() {
+        int[] positions;
+        boolean[] selected;
+        LinearSpaceDP dp;
+        long time;
+        timer.start(-1);
+        time = System.nanoTime();
+        positions = getPositions();
+        dp = new LinearSpaceDP(getWeights(), getProfits());
+        selected = dp.solve(knapsack.getCapacity());
+        recorder.cells(dp.getCells());
+        time = lap(Phase.TABLE_FILL, time);
+        for (int i = selected.length - 1; i >= 0; i--) {
+            if (selected[i]) {
+                pack(positions[i]);
             }
         }
-        if (table[row][0] != 0) {
-            item = items.remove(0);
-            knapsack.pack(item);
+        lap(Phase.TRACEBACK, time);
+        return knapsack;
+    }
+
+    /**
+     * Solves a given instance by using dynamic programming over the profits.
+     * <p>
+     * The rows hold the minimum weight to reach every profit (see {@link ProfitIndexedDP}), so the
+     * cost depends on the total profit instead of the capacity, and the memory is linear in it.
+     * The items with no profit are never packed.
+     * <p>
+     * @return The knapsack with the packed items.
+     */
+    private Knapsack solveProfitIndexed() {
+        int[] positions;
+        long[] profits;
+        boolean[] selected;
+        ProfitIndexedDP dp;
+        long time;
+        timer.start(-1);
+        time = System.nanoTime();
+        positions = getPositions();
+        profits = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            profits[i] = (long) Math.max(problem.getProfits()[positions[i]], 0);
         }
+        dp = new ProfitIndexedDP(getWeights(), profits);
+        selected = dp.solve(knapsack.getCapacity(), dp.getTotalProfit());
+        recorder.cells(dp.getCells());
+        time = lap(Phase.TABLE_FILL, time);
+        for (int i = selected.length - 1; i >= 0; i--) {
+            if (selected[i]) {
+                pack(positions[i]);
+            }
+        }
+        lap(Phase.TRACEBACK, time);
+        return knapsack;
+    }
+
+    /**
+     * Solves a given instance whose profits are proportional to the weights as a subset sum
+     * problem: the heaviest subset of the items that fits is the most profitable one.
+     * <p>
+     * The reachable sums of weights are kept as bit sets (see {@link SubsetSumDP}), so every cell
+     * of the table becomes a single bit, updated 64 at a time. The items with no weight are never
+     * packed, since they have no profit either.
+     * <p>
+     * @return The knapsack with the packed items.
+     */
+    private Knapsack solveSubsetSum() {
+        int[] positions;
+        boolean[] selected;
+        SubsetSumDP dp;
+        long time;
+        timer.start(-1);
+        time = System.nanoTime();
+        positions = getPositions();
+        dp = new SubsetSumDP(getWeights());
+        selected = dp.solve(knapsack.getCapacity());
+        recorder.cells(dp.getWords() << 6);
+        time = lap(Phase.TABLE_FILL, time);
+        for (int i = selected.length - 1; i >= 0; i--) {
+            if (selected[i]) {
+                pack(positions[i]);
+            }
+        }
+        lap(Phase.TRACEBACK, time);
+        return knapsack;
+    }
+
+    /**
+     * Returns the dynamic programming method that costs less for the unpacked items: the subset
+     * sum bit set when the profits are proportional to the weights, the rows indexed by profit
+     * when the profits are integers and the estimate of their cells is less than half the cells of
+     * the table (which are cheaper), and the table otherwise.
+     */
+    private DynamicProgramming chooseDynamicProgramming() {
+        int n;
+        long total;
+        if (hasProportionalProfits()) {
+            return DynamicProgramming.SUBSET_SUM;
+        }
+        if (!hasIntegerProfits()) {
+            return DynamicProgramming.TABLE;
+        }
+        n = 0;
+        total = 0;
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i)) {
+                total += (long) Math.max(problem.getProfits()[i], 0);
+                n++;
+            }
+        }
+        if (total >= Integer.MAX_VALUE - 64) {
+            return DynamicProgramming.TABLE;
+        }
+        return 2 * ProfitIndexedDP.estimateCells(n, total) < (long) n * (knapsack.getCapacity() + 1) ? DynamicProgramming.PROFIT_INDEXED : DynamicProgramming.TABLE;
+    }
+
+    /**
+     * Revises if the profits of all the unpacked items are the same positive multiple of their
+     * weights. The products are compared instead of the ratios, so integers are compared exactly.
+     */
+    private boolean hasProportionalProfits() {
+        int first;
+        first = -1;
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (index.isRemoved(i)) {
+                continue;
+            }
+            if (first < 0 && problem.getWeights()[i] > 0) {
+                first = i;
+            }
+            if (problem.getProfits()[i] < 0) {
+                return false;
+            }
+        }
+        if (first < 0 || problem.getProfits()[first] == 0) {
+            return false;
+        }
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i) && problem.getProfits()[i] * problem.getWeights()[first] != problem.getProfits()[first] * problem.getWeights()[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Revises if the profits of all the unpacked items are integers.
+     */
+    private boolean hasIntegerProfits() {
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i) && problem.getProfits()[i] != Math.rint(problem.getProfits()[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Solves a given instance approximately by using dynamic programming over rounded profits.
+     * <p>
+     * The unpacked items that fit and have a positive profit are sorted by profit per weight unit.
+     * The items that fit in that order give the bounds of the optimum: their profit plus a
+     * fraction of the next one (the Dantzig bound) is an upper bound, and their profit or the
+     * largest profit of an item, whichever is larger, is a lower bound of at least half of it.
+     * Dividing the profits by epsilon times the lower bound over the number of items loses less
+     * than one unit per item, and the row only needs to reach the upper bound.
+     * <p>
+     * @param epsilon The largest fraction of the optimum that may be lost.
+     * @return The knapsack with the packed items.
+     */
+    private Knapsack solveApproximate(double epsilon) {
+        int m, capacity;
+        int[] order, positions, weights;
+        long filled;
+        long[] scaled;
+        double max, prefix, upper, scale;
+        boolean[] selected;
+        ProfitIndexedDP dp;
+        long time;
+        timer.start(-1);
+        time = System.nanoTime();
+        capacity = knapsack.getCapacity();
+        order = HeuristicIndex.sort(problem, Heuristic.MAX_PROFIT_PER_WEIGHT_UNIT);
+        positions = new int[order.length];
+        m = 0;
+        for (int item : order) {
+            if (!index.isRemoved(item) && problem.getWeights()[item] <= capacity && problem.getProfits()[item] > 0) {
+                positions[m++] = item;
+            }
+        }
+        if (m == 0) {
+            return knapsack;
+        }
+        max = 0;
+        prefix = 0;
+        upper = -1;
+        filled = 0;
+        for (int k = 0; k < m; k++) {
+            max = Math.max(max, problem.getProfits()[positions[k]]);
+            if (upper < 0) {
+                if (filled + problem.getWeights()[positions[k]] <= capacity) {
+                    filled += problem.getWeights()[positions[k]];
+                    prefix += problem.getProfits()[positions[k]];
+                } else {
+                    upper = prefix + (double) (capacity - filled) * problem.getProfits()[positions[k]] / problem.getWeights()[positions[k]];
+                }
+            }
+        }
+        if (upper < 0) {
+            upper = prefix;
+        }
+        scale = epsilon * Math.max(prefix, max) / m;
+        weights = new int[m];
+        scaled = new long[m];
+        for (int k = 0; k < m; k++) {
+            weights[k] = problem.getWeights()[positions[k]];
+            scaled[k] = (long) Math.floor(problem.getProfits()[positions[k]] / scale);
+        }
+        dp = new ProfitIndexedDP(weights, scaled);
+        selected = dp.solve(capacity, (long) Math.ceil(upper / scale) + 1);
+        recorder.cells(dp.getCells());
+        time = lap(Phase.TABLE_FILL, time);
+        for (int k = m - 1; k >= 0; k--) {
+            if (selected[k]) {
+                pack(positions[k]);
+            }
+        }
+        lap(Phase.TRACEBACK, time);
         return knapsack;
     }
 
@@ -147,9 +518,112 @@ public class ConstructiveSolver implements FeatureManager {
      * @return The unpacked items in this solver.
      */
     public List<Item> getItems() {
+        List<Item> items;
+        items = new ArrayList(index.getNbRemaining());
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i)) {
+                items.add(problem.getItem(i));
+            }
+        }
         return items;
     }
 
+    /**
+     * Packs the item at the position provided and removes it from the unpacked items.
+     */
+    private void pack(int position) {
+        knapsack.pack(problem.getItem(position));
+        index.remove(position);
+        if (features != null) {
+            features.remove(position);
+        }
+    }
+
+    /**
+     * Starts the measures of a solve.
+     */
+    private void begin(String solver) {
+        recorder = Metrics.begin(solver, problem.getId());
+        phases.clear();
+        nested = 0;
+    }
+
+    /**
+     * Adds the time since the start provided to a phase, except for the time already assigned to
+     * the features in between, and returns the current time.
+     */
+    private long lap(Phase phase, long start) {
+        long now;
+        now = System.nanoTime();
+        phases.add(phase, now - start - nested);
+        nested = 0;
+        return now;
+    }
+
+    /**
+     * Finishes the measures of the current solve.
+     */
+    private void end() {
+        recorder.end();
+        recorder = null;
+    }
+
+    /**
+     * Returns the positions in the problem of the unpacked items in this solver.
+     */
+    private int[] getPositions() {
+        int k;
+        int[] positions;
+        positions = new int[index.getNbRemaining()];
+        k = 0;
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i)) {
+                positions[k++] = i;
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the weights of the unpacked items in this solver. While no item has been packed, the
+     * weights are read from the problem without copying them.
+     */
+    private int[] getWeights() {
+        int k;
+        int[] weights;
+        if (index.getNbRemaining() == problem.getNbItems()) {
+            return problem.getWeights();
+        }
+        weights = new int[index.getNbRemaining()];
+        k = 0;
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i)) {
+                weights[k++] = problem.getWeights()[i];
+            }
+        }
+        return weights;
+    }
+
+    /**
+     * Returns the profits of the unpacked items in this solver. While no item has been packed, the
+     * profits are read from the problem without copying them.
+     */
+    private double[] getProfits() {
+        int k;
+        double[] profits;
+        if (index.getNbRemaining() == problem.getNbItems()) {
+            return problem.getProfits();
+        }
+        profits = new double[index.getNbRemaining()];
+        k = 0;
+        for (int i = 0; i < problem.getNbItems(); i++) {
+            if (!index.isRemoved(i)) {
+                profits[k++] = problem.getProfits()[i];
+            }
+        }
+        return profits;
+    }
+
     /**
      * Returns the current capacity of this knapsack.
      * <p>
@@ -177,6 +651,17 @@ public class ConstructiveSolver implements FeatureManager {
         return timer.getElapsedTime();
     }
 
+    /**
+     * Returns the time spent in each phase of the last solve, in nanoseconds. Heuristic solves
+     * are split in item selection and packing (and, with a heuristic selector, features and
+     * heuristic selection); dynamic programming solves, in filling the table and tracing it back.
+     * <p>
+     * @return The time spent in each phase of the last solve.
+     */
+    public PhaseTimes getPhaseTimes() {
+        return new PhaseTimes(phases);
+    }
+
     /**
      * Returns the constructive heuristic that corresponds to the string
      * identifier provided.
@@ -204,91 +689,26 @@ public class ConstructiveSolver implements FeatureManager {
 
     @Override
     public double getFeature(String feature) throws NoSuchFeatureException {
-        int i;
-        double[] x, y;
-        switch (feature) {
-            case "NORM_MEAN_WEIGHT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getWeight();
-                }
-                return Statistical.mean(x) / Statistical.max(x);
-            case "NORM_MEDIAN_WEIGHT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getWeight();
-                }
-                return Statistical.median(x) / Statistical.max(x);
-            case "NORM_STD_WEIGHT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getWeight();
+        long start, elapsed;
+        double value;
+        Metrics.countFeature(feature);
+        start = recorder != null ? System.nanoTime() : 0;
+        if (features == null) {
+            features = new FeatureTracker(problem);
+            for (int i = 0; i < problem.getNbItems(); i++) {
+                if (index.isRemoved(i)) {
+                    features.remove(i);
                 }
-                return Statistical.stdev(x) / Statistical.max(x);
-            case "NORM_MEAN_PROFIT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getProfit();
-                }
-                return Statistical.mean(x) / Statistical.max(x);
-            case "NORM_MEDIAN_PROFIT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getProfit();
-                }
-                return Statistical.median(x) / Statistical.max(x);
-            case "NORM_STD_PROFIT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getProfit();
-                }
-                return Statistical.stdev(x) / Statistical.max(x);
-            case "LQ_PROFIT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getProfit();
-                }
-                return Statistical.lowerQuartile(x);
-            case "UQ_PROFIT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getProfit();
-                }
-                return Statistical.upperQuartile(x);
-            case "LQ_WEIGHT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getWeight();
-                }
-                return Statistical.lowerQuartile(x);
-            case "UQ_WEIGHT":
-                i = 0;
-                x = new double[items.size()];
-                for (Item item : items) {
-                    x[i++] = item.getWeight();
-                }
-                return Statistical.upperQuartile(x);
-            case "NORM_CORRELATION":
-                i = 0;
-                x = new double[items.size()];
-                y = new double[items.size()];
-                for (Item item : items) {
-                    x[i] = item.getWeight();
-                    y[i++] = item.getProfit();
-                }
-                return Statistical.correlation(x, y) / 2 + 0.5;
-            default:
-                throw new NoSuchFeatureException("Feature \'" + feature + "\' is not recognized by the system.");
+            }
+        }
+        value = features.getFeature(feature);
+        if (recorder != null) {
+            recorder.feature();
+            elapsed = System.nanoTime() - start;
+            phases.add(Phase.FEATURES, elapsed);
+            nested += elapsed;
         }
+        return value;
     }
 
     @Override
@@ -0,0 +1,137 @@
+package KP.Solvers.Constructive;
+
+import HERMES.Exceptions.NoSuchFeatureException;
+import KP.KnapsackProblem;
+import KP.Statistics.OrderStatistics;
+import KP.Statistics.StatisticsKernel;
+import KP.Statistics.Summary;
+
+/**
+ * Keeps the features of the unpacked items of a knapsack problem up to date as items are packed.
+ * <p>
+ * Until the first item is packed, the features are computed once with a
+ * <code>StatisticsKernel</code>, in O(n). The first packed item builds an
+ * <code>OrderStatistics</code> for the weights and another for the profits, and from then on every
+ * feature costs O(1) (means, standard deviations and correlation) or O(log n) (medians and
+ * quartiles) instead of a pass over all the unpacked items. The running sums carry the rounding
+ * errors of the removals, so with fractional values the features may differ from a direct
+ * computation: about 1e-12 (relative) for the means, at most about 1e-9 for the standard deviations
+ * and the correlation (see <code>OrderStatistics</code>).
+ * <p>
+ * @version 1.0
+ */
+class FeatureTracker {
+
+    private final int[] weights;
+    private final double[] x, profits;
+    private OrderStatistics weightOrder, profitOrder;
+    private Summary weightStatistics, profitStatistics;
+    private double sumOfProducts;
+
+    /**
+     * Creates a new instance of <code>FeatureTracker</code> that contains all the items of the
+     * problem provided.
+     * <p>
+     * @param problem The knapsack problem.
+     */
+    FeatureTracker(KnapsackProblem problem) {
+        weights = problem.getWeights();
+        profits = problem.getProfits();
+        x = new double[weights.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = weights[i];
+            sumOfProducts += x[i] * profits[i];
+        }
+    }
+
+    /**
+     * Removes an item from the unpacked items.
+     * <p>
+     * @param item The position of the item in the problem.
+     */
+    void remove(int item) {
+        int size;
+        if (weightOrder == null) {
+            weightOrder = new OrderStatistics(x);
+            profitOrder = new OrderStatistics(profits);
+            weightStatistics = weightOrder;
+            profitStatistics = profitOrder;
+        }
+        size = weightOrder.size();
+        weightOrder.remove(item);
+        if (weightOrder.size() != size) {
+            profitOrder.remove(item);
+            sumOfProducts -= (double) weights[item] * profits[item];
+        }
+    }
+
+    /**
+     * Returns the value of a feature of the unpacked items.
+     * <p>
+     * @param feature The name of the feature.
+     * @return The value of the feature.
+     * @throws NoSuchFeatureException If the feature is not recognized.
+     */
+    double getFeature(String feature) throws NoSuchFeatureException {
+        StatisticsKernel kernel;
+        if (weightStatistics == null) {
+            kernel = new StatisticsKernel();
+            weightStatistics = kernel.summarize(x, x.length);
+            profitStatistics = kernel.summarize(profits, profits.length);
+        }
+        switch (feature) {
+            case "NORM_MEAN_WEIGHT":
+                return weightStatistics.mean() / weightStatistics.max();
+            case "NORM_MEDIAN_WEIGHT":
+                return weightStatistics.median() / weightStatistics.max();
+            case "NORM_STD_WEIGHT":
+                return weightStatistics.stdev() / weightStatistics.max();
+            case "NORM_MEAN_PROFIT":
+                return profitStatistics.mean() / profitStatistics.max();
+            case "NORM_MEDIAN_PROFIT":
+                return profitStatistics.median() / profitStatistics.max();
+            case "NORM_STD_PROFIT":
+                return profitStatistics.stdev() / profitStatistics.max();
+            case "LQ_PROFIT":
+                return profitStatistics.lowerQuartile();
+            case "UQ_PROFIT":
+                return profitStatistics.upperQuartile();
+            case "LQ_WEIGHT":
+                return weightStatistics.lowerQuartile();
+            case "UQ_WEIGHT":
+                return weightStatistics.upperQuartile();
+            case "NORM_CORRELATION":
+                return correlation() / 2 + 0.5;
+            default:
+                throw new NoSuchFeatureException("Feature \'" + feature + "\' is not recognized by the system.");
+        }
+    }
+
+    /**
+     * Returns the correlation between the weights and the profits of the unpacked items, computed
+     * from the running sums as <code>Utils.Statistical.correlation</code> does.
+     * <p>
+     * After some items are packed, the sums carry the rounding errors of the removals, so a
+     * variance that should be zero (for instance, with a single item left) may come out as a tiny
+     * number and turn the correlation into an unbounded value. When a variance term is at most
+     * <code>OrderStatistics.CANCELLATION</code> times <code>n * sumOfSquares</code>, the
+     * correlation is computed again over the unpacked items.
+     */
+    private double correlation() {
+        double n, x, y, xx, yy, varianceX, varianceY;
+        double[] unpackedWeights;
+        n = weightStatistics.size();
+        x = weightStatistics.sum();
+        y = profitStatistics.sum();
+        xx = weightStatistics.sumOfSquares();
+        yy = profitStatistics.sumOfSquares();
+        varianceX = n * xx - x * x;
+        varianceY = n * yy - y * y;
+        if (weightOrder != null && (varianceX <= OrderStatistics.CANCELLATION * n * xx || varianceY <= OrderStatistics.CANCELLATION * n * yy)) {
+            unpackedWeights = weightOrder.values();
+            return StatisticsKernel.correlation(unpackedWeights, profitOrder.values(), unpackedWeights.length);
+        }
+        return (n * sumOfProducts - x * y) / (Math.sqrt(varianceX) * Math.sqrt(varianceY));
+    }
+
+}
@@ -98,6 +98,19 @@ public class ConstructiveHeuristic {
         return null;
     }
 
+    /**
+     * Returns the position of a suitable item to place in the knapsack. The item is the same one
+     * that {@link #nextItem(KP.Knapsack, java.util.List)} selects from the remaining items, but it
+     * is found in the orders kept by the index instead of by scanning all of them.
+     * <p>
+     * @param knapsack The knapsack where the item will be packed.
+     * @param index The index of the items remaining to be packed.
+     * @return The position in the problem of the next item to pack, or -1 if no item fits.
+     */
+    public int nextItem(Knapsack knapsack, HeuristicIndex index) {
+        return index.nextItem(heuristic, knapsack.getCapacity());
+    }
+
     /**
      * Returns the string representation of this constructive heuristic.
      * <p>
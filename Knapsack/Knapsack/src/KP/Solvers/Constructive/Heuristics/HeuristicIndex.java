@@ -0,0 +1,180 @@
+package KP.Solvers.Constructive.Heuristics;
+
+import KP.KnapsackProblem;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
+import KP.Statistics.OrderStatistics;
+
+/**
+ * Keeps the items of a knapsack problem sorted once per selection criterion, so that constructive
+ * heuristics can find their next item without scanning all the remaining items.
+ * <p>
+ * Every criterion walks its own order with a cursor. Since the capacity of a knapsack never grows
+ * while it is being filled, an item that does not fit at some point will never fit again and the
+ * cursor can move past it for good. Over a whole run, each criterion visits every item at most
+ * once.
+ * <p>
+ * @version 1.0
+ */
+public class HeuristicIndex {
+
+    private final KnapsackProblem problem;
+    private final boolean[] removed;
+    private final int[][] orders;
+    private final int[] cursors;
+    private int nbRemaining, lastCapacity;
+
+    /**
+     * Creates a new instance of <code>HeuristicIndex</code>. The orders are sorted the first time
+     * each criterion is used.
+     * <p>
+     * @param problem The knapsack problem whose items are indexed.
+     */
+    public HeuristicIndex(KnapsackProblem problem) {
+        this.problem = problem;
+        removed = new boolean[problem.getNbItems()];
+        orders = new int[Heuristic.values().length][];
+        cursors = new int[orders.length];
+        nbRemaining = removed.length;
+        lastCapacity = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Returns the position of the next item selected by the heuristic provided among the remaining
+     * items that fit in the capacity provided. Ties are broken in favor of the item that comes
+     * first in the problem, as <code>ConstructiveHeuristic.nextItem</code> does.
+     * <p>
+     * @param heuristic The selection heuristic.
+     * @param capacity The current capacity of the knapsack.
+     * @return The position of the next item in the problem, or -1 if no remaining item fits.
+     */
+    public int nextItem(Heuristic heuristic, int capacity) {
+        int h, cursor, item;
+        int[] order, weights;
+        h = heuristic.ordinal();
+        if (capacity > lastCapacity) {
+            /*
+             * The capacity is not expected to grow, but if it does the items skipped so far may
+             * fit again.
+             */
+            for (int i = 0; i < cursors.length; i++) {
+                cursors[i] = 0;
+            }
+        }
+        lastCapacity = capacity;
+        if (orders[h] == null) {
+            orders[h] = sort(problem, heuristic);
+        }
+        order = orders[h];
+        weights = problem.getWeights();
+        cursor = cursors[h];
+        while (cursor < order.length) {
+            item = order[cursor];
+            if (!removed[item] && weights[item] <= capacity) {
+                cursors[h] = cursor;
+                return item;
+            }
+            cursor++;
+        }
+        cursors[h] = cursor;
+        return -1;
+    }
+
+    /**
+     * Removes an item from the remaining items.
+     * <p>
+     * @param item The position of the item in the problem.
+     */
+    public void remove(int item) {
+        if (!removed[item]) {
+            removed[item] = true;
+            nbRemaining--;
+        }
+    }
+
+    /**
+     * Revises if an item has been removed from the remaining items.
+     * <p>
+     * @param item The position of the item in the problem.
+     * @return <code>true</code> if the item has been removed, <code>false</code> otherwise.
+     */
+    public boolean isRemoved(int item) {
+        return removed[item];
+    }
+
+    /**
+     * Returns the number of remaining items.
+     * <p>
+     * @return The number of remaining items.
+     */
+    public int getNbRemaining() {
+        return nbRemaining;
+    }
+
+    /**
+     * Returns the problem whose items are indexed.
+     * <p>
+     * @return The problem whose items are indexed.
+     */
+    public KnapsackProblem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Returns the positions of the items of a problem in the order the heuristic provided prefers
+     * them. Ties keep the order of the problem. Items the heuristic would never select (those
+     * whose criterion is not a number or not larger than <code>-Double.MAX_VALUE</code>) are left
+     * out.
+     * <p>
+     * @param problem The knapsack problem.
+     * @param heuristic The selection heuristic.
+     * @return The positions of the items sorted by the criterion of the heuristic.
+     */
+    public static int[] sort(KnapsackProblem problem, Heuristic heuristic) {
+        int n;
+        int[] order, weights;
+        double[] keys;
+        switch (heuristic) {
+            case MAX_PROFIT:
+                return sortDescending(problem.getProfits());
+            case MAX_PROFIT_PER_WEIGHT_UNIT:
+                return sortDescending(problem.getProfitsPerWeightUnit());
+            case MIN_WEIGHT:
+                weights = problem.getWeights();
+                keys = new double[weights.length];
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = -weights[i];
+                }
+                return sortDescending(keys);
+            default:
+                n = problem.getNbItems();
+                order = new int[n];
+                for (int i = 0; i < n; i++) {
+                    order[i] = i;
+                }
+                return order;
+        }
+    }
+
+    /**
+     * Returns the positions of the keys sorted in decreasing order (stable).
+     */
+    private static int[] sortDescending(double[] keys) {
+        int n, k;
+        int[] order;
+        n = 0;
+        for (double key : keys) {
+            if (key > -Double.MAX_VALUE) {
+                n++;
+            }
+        }
+        order = new int[n];
+        k = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] > -Double.MAX_VALUE) {
+                order[k++] = i;
+            }
+        }
+        return OrderStatistics.sort(keys, order, true);
+    }
+
+}
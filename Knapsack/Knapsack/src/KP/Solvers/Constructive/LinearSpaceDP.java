@@ -0,0 +1,141 @@
+package KP.Solvers.Constructive;
+
+import java.util.Arrays;
+
+/**
+ * Provides an exact dynamic programming method for the 0-1 knapsack problem that only keeps a
+ * constant number of rows indexed by capacity.
+ * <p>
+ * The item range is split in two halves, the best profit of each half is computed for every
+ * capacity and the capacity is divided where the sum of both halves is maximum (as Hirschberg's
+ * algorithm does for edit distance). Each half is then solved recursively. Ranges of at most
+ * {@link #BLOCK} items are solved with a bit-packed decision table, which costs as much memory
+ * as one row of values.
+ * <p>
+ * @version 1.0
+ */
+final class LinearSpaceDP {
+
+    /**
+     * The largest number of items solved directly with a decision table.
+     */
+    static final int BLOCK = 64;
+
+    private final int[] weights;
+    private final double[] profits;
+    private final boolean[] selected;
+    private double[] lower, upper;
+    private long[][] decisions;
+    private long cells;
+
+    /**
+     * Creates a new instance of <code>LinearSpaceDP</code>.
+     * <p>
+     * @param weights The weights of the items.
+     * @param profits The profits of the items.
+     */
+    LinearSpaceDP(int[] weights, double[] profits) {
+        this.weights = weights;
+        this.profits = profits;
+        selected = new boolean[weights.length];
+    }
+
+    /**
+     * Solves the problem for the capacity provided.
+     * <p>
+     * @param capacity The capacity of the knapsack.
+     * @return An array that indicates, for every item, if it belongs to the solution.
+     */
+    boolean[] solve(int capacity) {
+        cells = 0;
+        lower = new double[capacity + 1];
+        upper = new double[capacity + 1];
+        decisions = new long[Math.min(BLOCK, weights.length)][(capacity >>> 6) + 1];
+        solve(0, weights.length, capacity);
+        lower = upper = null;
+        decisions = null;
+        return selected;
+    }
+
+    /**
+     * Returns the number of cells computed by the last call to {@link #solve(int)}, counting the
+     * rows that are computed again at every level of the recursion.
+     * <p>
+     * @return The number of cells computed.
+     */
+    long getCells() {
+        return cells;
+    }
+
+    /**
+     * Solves the items in the range [lo, hi) for the capacity provided.
+     * <p>
+     * @return The weight of the items selected in the range.
+     */
+    private int solve(int lo, int hi, int capacity) {
+        int mid, split, used;
+        double value, best;
+        if (hi - lo <= BLOCK) {
+            return solveBlock(lo, hi, capacity);
+        }
+        mid = (lo + hi) >>> 1;
+        fill(lower, lo, mid, capacity);
+        fill(upper, mid, hi, capacity);
+        /*
+         * Splits the capacity. Among the optimal splits, the one that leaves the smallest profit
+         * to the upper half (and the largest capacity for that profit) is preferred, the same way
+         * the table traceback avoids packing the last items whenever possible.
+         */
+        best = Double.NEGATIVE_INFINITY;
+        split = capacity;
+        for (int d = capacity; d >= 0; d--) {
+            value = lower[d] + upper[capacity - d];
+            if (value > best || (value == best && upper[capacity - d] == upper[capacity - split])) {
+                best = value;
+                split = d;
+            }
+        }
+        used = solve(mid, hi, capacity - split);
+        used += solve(lo, mid, capacity - used);
+        return used;
+    }
+
+    /**
+     * Solves the items in the range [lo, hi) with a bit-packed decision table.
+     * <p>
+     * @return The weight of the items selected in the range.
+     */
+    private int solveBlock(int lo, int hi, int capacity) {
+        int row, used, words;
+        words = (capacity >>> 6) + 1;
+        Arrays.fill(lower, 0, capacity + 1, 0);
+        for (int i = lo; i < hi; i++) {
+            Arrays.fill(decisions[i - lo], 0, words, 0);
+            cells += Math.max(capacity - weights[i] + 1, 0);
+            TableKernel.INSTANCE.pack(lower, weights[i], profits[i], capacity, decisions[i - lo]);
+        }
+        row = capacity;
+        used = 0;
+        for (int i = hi - 1; i >= lo; i--) {
+            if ((decisions[i - lo][row >>> 6] & (1L << row)) != 0) {
+                selected[i] = true;
+                row -= weights[i];
+                used += weights[i];
+            }
+        }
+        return used;
+    }
+
+    /**
+     * Fills a row with the best profit of the items in the range [lo, hi) for every capacity up
+     * to the one provided.
+     */
+    private void fill(double[] row, int lo, int hi, int capacity) {
+        Arrays.fill(row, 0, capacity + 1, 0);
+        for (int i = lo; i < hi; i++) {
+            cells += Math.max(capacity - weights[i] + 1, 0);
+            TableKernel.INSTANCE.pack(row, weights[i], profits[i], capacity, null);
+        }
+    }
+
+}
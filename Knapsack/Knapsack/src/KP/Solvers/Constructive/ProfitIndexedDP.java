@@ -0,0 +1,207 @@
+package KP.Solvers.Constructive;
+
+import java.util.Arrays;
+
+/**
+ * Provides an exact dynamic programming method for the 0-1 knapsack problem with integer profits
+ * that keeps rows indexed by profit instead of by capacity.
+ * <p>
+ * For every profit q up to a target, a row holds the minimum weight of a subset of the items with
+ * a profit of at least q. The first pass over all the items finds the best profit whose minimum
+ * weight fits in the knapsack. The solution is then reconstructed as in {@link LinearSpaceDP}: the
+ * items are split in two halves, the rows of both halves give the best split of the target profit
+ * between them (the one with the smallest total weight), and each half is solved recursively.
+ * Ranges of at most {@link LinearSpaceDP#BLOCK} items are solved with a bit-packed decision table.
+ * The memory is linear in the total profit and the cost is the number of items times the total
+ * profit times the number of levels of the recursion, whatever the capacity.
+ * <p>
+ * @version 1.0
+ */
+final class ProfitIndexedDP {
+
+    private static final long INFINITY = Long.MAX_VALUE / 2;
+
+    private final int[] weights;
+    private final long[] profits;
+    private final boolean[] selected;
+    private long[] lower, upper;
+    private long[][] decisions;
+    private int capacity;
+    private long cells;
+
+    /**
+     * Creates a new instance of <code>ProfitIndexedDP</code>.
+     * <p>
+     * @param weights The weights of the items.
+     * @param profits The profits of the items (not negative).
+     */
+    ProfitIndexedDP(int[] weights, long[] profits) {
+        this.weights = weights;
+        this.profits = profits;
+        selected = new boolean[weights.length];
+    }
+
+    /**
+     * Returns the sum of the profits of the items.
+     * <p>
+     * @return The sum of the profits of the items.
+     */
+    long getTotalProfit() {
+        long total;
+        total = 0;
+        for (long profit : profits) {
+            total += profit;
+        }
+        return total;
+    }
+
+    /**
+     * Returns an estimate of the number of cells computed to solve a problem, to compare it with
+     * the number of cells of the tables indexed by capacity.
+     * <p>
+     * @param nbItems The number of items.
+     * @param totalProfit The sum of the profits of the items.
+     * @return An estimate of the number of cells computed.
+     */
+    static long estimateCells(int nbItems, long totalProfit) {
+        int levels;
+        levels = 0;
+        for (int range = nbItems; range > LinearSpaceDP.BLOCK; range = (range + 1) >>> 1) {
+            levels++;
+        }
+        return (levels + 2) * nbItems * totalProfit;
+    }
+
+    /**
+     * Solves the problem for the capacity provided.
+     * <p>
+     * @param capacity The capacity of the knapsack.
+     * @param maxProfit An upper bound of the profit of any subset of the items that fits in the
+     * knapsack, which limits the length of the rows.
+     * @return An array that indicates, for every item, if it belongs to the solution.
+     */
+    boolean[] solve(int capacity, long maxProfit) {
+        int top, best;
+        if (Math.min(getTotalProfit(), maxProfit) >= Integer.MAX_VALUE - 64) {
+            throw new IllegalArgumentException("The profits are too large for a row indexed by profit.");
+        }
+        this.capacity = capacity;
+        top = (int) Math.min(getTotalProfit(), maxProfit);
+        cells = 0;
+        lower = new long[top + 1];
+        upper = new long[top + 1];
+        decisions = new long[Math.min(LinearSpaceDP.BLOCK, weights.length)][(top >>> 6) + 1];
+        fill(lower, 0, weights.length, top);
+        best = top;
+        while (lower[best] > capacity) {
+            best--;
+        }
+        solve(0, weights.length, best);
+        lower = upper = null;
+        decisions = null;
+        return selected;
+    }
+
+    /**
+     * Returns the number of cells computed by the last call to {@link #solve(int, long)},
+     * counting the rows that are computed again at every level of the recursion.
+     * <p>
+     * @return The number of cells computed.
+     */
+    long getCells() {
+        return cells;
+    }
+
+    /**
+     * Selects the lightest subset of the items in the range [lo, hi) with a profit of at least the
+     * target.
+     */
+    private void solve(int lo, int hi, int target) {
+        int mid, split;
+        long weight, best;
+        if (target == 0) {
+            return;
+        }
+        if (hi - lo <= LinearSpaceDP.BLOCK) {
+            solveBlock(lo, hi, target);
+            return;
+        }
+        mid = (lo + hi) >>> 1;
+        fill(lower, lo, mid, target);
+        fill(upper, mid, hi, target);
+        best = INFINITY;
+        split = 0;
+        for (int q = 0; q <= target; q++) {
+            weight = lower[q] + upper[target - q];
+            if (weight < best) {
+                best = weight;
+                split = q;
+            }
+        }
+        solve(mid, hi, target - split);
+        solve(lo, mid, split);
+    }
+
+    /**
+     * Selects the lightest subset of the items in the range [lo, hi) with a profit of at least the
+     * target, with a bit-packed decision table.
+     */
+    private void solveBlock(int lo, int hi, int target) {
+        int q, words, reach;
+        long weight;
+        words = (target >>> 6) + 1;
+        Arrays.fill(lower, 0, target + 1, INFINITY);
+        lower[0] = 0;
+        reach = 0;
+        for (int i = lo; i < hi; i++) {
+            Arrays.fill(decisions[i - lo], 0, words, 0);
+            if (profits[i] == 0 || weights[i] > capacity) {
+                continue;
+            }
+            reach = (int) Math.min(reach + profits[i], target);
+            cells += reach;
+            for (q = reach; q > 0; q--) {
+                weight = lower[(int) Math.max(q - profits[i], 0)] + weights[i];
+                if (weight < lower[q]) {
+                    lower[q] = weight;
+                    decisions[i - lo][q >>> 6] |= 1L << q;
+                }
+            }
+        }
+        q = target;
+        for (int i = hi - 1; i >= lo && q > 0; i--) {
+            if ((decisions[i - lo][q >>> 6] & (1L << q)) != 0) {
+                selected[i] = true;
+                q = (int) Math.max(q - profits[i], 0);
+            }
+        }
+    }
+
+    /**
+     * Fills a row with the minimum weight of a subset of the items in the range [lo, hi) with a
+     * profit of at least q, for every q up to the target. Profits are visited in decreasing order
+     * so that the smaller ones still hold the result of the previous item, and only up to the
+     * total profit of the items visited (the row is infinite above it).
+     */
+    private void fill(long[] row, int lo, int hi, int target) {
+        int reach;
+        long weight;
+        Arrays.fill(row, 0, target + 1, INFINITY);
+        row[0] = 0;
+        reach = 0;
+        for (int i = lo; i < hi; i++) {
+            if (profits[i] == 0 || weights[i] > capacity) {
+                continue;
+            }
+            reach = (int) Math.min(reach + profits[i], target);
+            cells += reach;
+            for (int q = reach; q > 0; q--) {
+                weight = row[(int) Math.max(q - profits[i], 0)] + weights[i];
+                if (weight < row[q]) {
+                    row[q] = weight;
+                }
+            }
+        }
+    }
+
+}
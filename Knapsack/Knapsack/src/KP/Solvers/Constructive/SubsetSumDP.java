@@ -0,0 +1,211 @@
+package KP.Solvers.Constructive;
+
+import java.util.Arrays;
+
+/**
+ * Provides an exact method for the 0-1 knapsack problem when the profit of every item is
+ * proportional to its weight, so the best solution is the heaviest subset of the items that fits
+ * (a subset sum problem).
+ * <p>
+ * The sums of weights that can be reached are kept as a bit set in an array of longs, and adding an
+ * item shifts the bit set by its weight and combines both with an OR, 64 sums per operation. The
+ * solution is reconstructed as in {@link LinearSpaceDP}: the items are split in two halves, a sum
+ * of each half that add up to the target is found, and each half is solved recursively. Ranges of
+ * at most {@link #BLOCK} items keep the sums that every item reaches for the first time, which lead
+ * back to the items. The memory is two bits per unit of capacity for the sums of both halves plus
+ * one bit per item of a block and unit of its target, at most {@link #BLOCK} + 2 bits per unit of
+ * capacity. Small instances (up to {@link LinearSpaceDP#BLOCK} items whose decisions take no more
+ * than {@link #DIRECT_WORDS} words) are solved at once, which picks the same items as the table of
+ * {@link ConstructiveSolver}.
+ * <p>
+ * @version 1.0
+ */
+final class SubsetSumDP {
+
+    /**
+     * The largest number of items solved directly with a row of decisions per item. It is much
+     * smaller than the block of {@link LinearSpaceDP}, since a row of decisions costs as much
+     * memory as a row of sums.
+     */
+    static final int BLOCK = 8;
+
+    /**
+     * The largest number of words of decisions of an instance solved at once (a megabyte).
+     */
+    static final int DIRECT_WORDS = 1 << 17;
+
+    private final int[] weights;
+    private final boolean[] selected;
+    private long[] lower, upper;
+    private long[][] decisions;
+    private long words;
+
+    /**
+     * Creates a new instance of <code>SubsetSumDP</code>.
+     * <p>
+     * @param weights The weights of the items.
+     */
+    SubsetSumDP(int[] weights) {
+        this.weights = weights;
+        selected = new boolean[weights.length];
+    }
+
+    /**
+     * Solves the problem for the capacity provided.
+     * <p>
+     * @param capacity The capacity of the knapsack.
+     * @return An array that indicates, for every item, if it belongs to the solution.
+     */
+    boolean[] solve(int capacity) {
+        int best, end;
+        boolean direct;
+        words = 0;
+        lower = new long[(capacity >>> 6) + 1];
+        direct = weights.length <= BLOCK || weights.length <= LinearSpaceDP.BLOCK && (long) weights.length * lower.length <= DIRECT_WORDS;
+        decisions = new long[direct ? weights.length : BLOCK][0];
+        if (direct) {
+            solveBlock(0, weights.length, capacity);
+        } else {
+            upper = new long[(capacity >>> 6) + 1];
+            end = fill(lower, 0, weights.length, capacity);
+            best = capacity;
+            while ((lower[best >>> 6] & (1L << best)) == 0) {
+                best--;
+            }
+            solve(0, end, best);
+        }
+        lower = upper = null;
+        decisions = null;
+        return selected;
+    }
+
+    /**
+     * Returns the number of words of 64 sums updated by the last call to {@link #solve(int)},
+     * counting the rows that are computed again at every level of the recursion.
+     * <p>
+     * @return The number of words updated.
+     */
+    long getWords() {
+        return words;
+    }
+
+    /**
+     * Selects a subset of the items in the range [lo, hi) whose weights add up to the target,
+     * which must be reachable.
+     */
+    private void solve(int lo, int hi, int target) {
+        int mid, split;
+        long word;
+        if (target == 0) {
+            return;
+        }
+        if (hi - lo <= BLOCK) {
+            solveBlock(lo, hi, target);
+            return;
+        }
+        mid = (lo + hi) >>> 1;
+        fill(lower, lo, mid, target);
+        fill(upper, mid, hi, target);
+        /*
+         * Finds the smallest sum of the lower half whose complement is a sum of the upper half. If
+         * a half stopped early, it reached the target by itself, which is still a valid split.
+         */
+        split = -1;
+        for (int k = 0; k <= target >>> 6 && split < 0; k++) {
+            for (word = lower[k]; word != 0 && split < 0; word &= word - 1) {
+                split = (k << 6) + Long.numberOfTrailingZeros(word);
+                if (split > target || (upper[(target - split) >>> 6] & (1L << (target - split))) == 0) {
+                    split = -1;
+                }
+            }
+        }
+        solve(mid, hi, target - split);
+        solve(lo, mid, split);
+    }
+
+    /**
+     * Selects the heaviest subset of the items in the range [lo, hi) that weighs no more than the
+     * target (when it is reachable, a subset that weighs exactly the target), keeping the sums that
+     * every item reaches for the first time.
+     */
+    private void solveBlock(int lo, int hi, int target) {
+        int sum, last, end;
+        last = target >>> 6;
+        /*
+         * The rows of decisions grow with the targets of the blocks.
+         */
+        if (hi > lo && decisions[0].length <= last) {
+            for (int i = 0; i < decisions.length; i++) {
+                decisions[i] = new long[last + 1];
+            }
+        }
+        Arrays.fill(lower, 0, last + 1, 0);
+        lower[0] = 1;
+        end = lo;
+        while (end < hi && (lower[last] & (1L << target)) == 0) {
+            Arrays.fill(decisions[end - lo], 0, last + 1, 0);
+            add(lower, weights[end], target, decisions[end - lo]);
+            end++;
+        }
+        sum = target;
+        while ((lower[sum >>> 6] & (1L << sum)) == 0) {
+            sum--;
+        }
+        for (int i = end - 1; i >= lo && sum > 0; i--) {
+            if ((decisions[i - lo][sum >>> 6] & (1L << sum)) != 0) {
+                selected[i] = true;
+                sum -= weights[i];
+            }
+        }
+    }
+
+    /**
+     * Fills a bit set with the sums of weights of the items in the range [lo, hi) up to the
+     * target. The items after the first one that reaches the target are not needed.
+     * <p>
+     * @return The end of the items added.
+     */
+    private int fill(long[] row, int lo, int hi, int target) {
+        Arrays.fill(row, 0, (target >>> 6) + 1, 0);
+        row[0] = 1;
+        for (int i = lo; i < hi; i++) {
+            add(row, weights[i], target, null);
+            if ((row[target >>> 6] & (1L << target)) != 0) {
+                return i + 1;
+            }
+        }
+        return hi;
+    }
+
+    /**
+     * Adds the sums of a bit set plus a weight to it, up to the target, and records the new sums
+     * in the decisions (if any). The words are visited in decreasing order so that the lower ones
+     * still hold the sums before the item.
+     */
+    private void add(long[] row, int weight, int target, long[] decisions) {
+        int last, shift, bits;
+        long shifted, added;
+        if (weight > target || weight == 0) {
+            return;
+        }
+        last = target >>> 6;
+        shift = weight >>> 6;
+        bits = weight & 63;
+        words += last - shift + 1;
+        for (int k = last; k >= shift; k--) {
+            shifted = row[k - shift] << bits;
+            if (bits != 0 && k - shift > 0) {
+                shifted |= row[k - shift - 1] >>> (64 - bits);
+            }
+            if (k == last) {
+                shifted &= -1L >>> (63 - (target & 63));
+            }
+            added = shifted & ~row[k];
+            row[k] |= added;
+            if (decisions != null) {
+                decisions[k] = added;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,89 @@
+package KP.Solvers.Constructive;
+
+/**
+ * Updates a row of a dynamic programming table indexed by capacity with an item: for every
+ * capacity c from the largest one down to the weight of the item, the row keeps the best of
+ * <code>row[c]</code> and <code>row[c - weight] + profit</code>, and the capacities where packing
+ * the item is better are marked in a bit-packed row of decisions.
+ * <p>
+ * The kernel used by the solvers is {@link #INSTANCE}. When the classes of the project are compiled
+ * with JDK 16 or later, the build also compiles <code>VectorTableKernel</code> (in the
+ * <code>src-vector</code> folder), which compares and updates a whole vector of capacities at a
+ * time with the Vector API and turns the comparison mask into decision bits. It is loaded by
+ * reflection, so it is only used when the JVM can load it (Java 16 or later started with
+ * <code>--add-modules jdk.incubator.vector</code>); otherwise, or when the system property
+ * <code>knapsack.vector</code> is <code>false</code>, the plain loop of
+ * {@link TableKernel.Scalar} is used. Both kernels produce the same rows and decisions.
+ * <p>
+ * @version 1.0
+ */
+abstract class TableKernel {
+
+    /**
+     * The kernel used by the dynamic programming methods.
+     */
+    static final TableKernel INSTANCE = load();
+
+    /**
+     * Packs an item in a row of the table.
+     * <p>
+     * @param row The best profit for every capacity, updated in place.
+     * @param weight The weight of the item.
+     * @param profit The profit of the item.
+     * @param capacity The largest capacity of the row to update.
+     * @param decisions The row of decisions of the item, where the bits of the capacities whose
+     * profit is improved by the item are set (the others are not changed), or <code>null</code>.
+     */
+    abstract void pack(double[] row, int weight, double profit, int capacity, long[] decisions);
+
+    /**
+     * Returns the name of this kernel.
+     * <p>
+     * @return The name of this kernel.
+     */
+    abstract String getName();
+
+    /**
+     * Returns the vector kernel if the JVM can load it and it is not disabled, or the scalar one.
+     */
+    private static TableKernel load() {
+        if (!Boolean.parseBoolean(System.getProperty("knapsack.vector", "true"))) {
+            return new Scalar();
+        }
+        try {
+            return (TableKernel) Class.forName("KP.Solvers.Constructive.VectorTableKernel").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+            return new Scalar();
+        }
+    }
+
+    /**
+     * Updates the row one capacity at a time.
+     */
+    static final class Scalar extends TableKernel {
+
+        @Override
+        void pack(double[] row, int weight, double profit, int capacity, long[] decisions) {
+            double value;
+            /*
+             * Capacities are visited in decreasing order so that row[c - weight] still holds the
+             * result of the previous item.
+             */
+            for (int c = capacity; c >= weight; c--) {
+                value = Math.max(row[c], profit + row[c - weight]);
+                if (value != row[c]) {
+                    row[c] = value;
+                    if (decisions != null) {
+                        decisions[c >>> 6] |= 1L << c;
+                    }
+                }
+            }
+        }
+
+        @Override
+        String getName() {
+            return "Scalar";
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+package KP.Solvers.Exact;
+
+import KP.BitSetKnapsack;
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.SolveRecorder;
+import KP.Solvers.Constructive.ConstructiveSolver;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
+import KP.Solvers.Constructive.Heuristics.HeuristicIndex;
+import Utils.Timer;
+import java.util.Arrays;
+
+/**
+ * Provides a depth-first branch and bound method to solve the knapsack problem exactly.
+ * <p>
+ * The items are sorted by profit per weight unit and every node is bounded by the value of the
+ * linear relaxation (the Dantzig bound: the items that fit in order plus a fraction of the first
+ * one that does not). The search starts from the best solution found by the constructive
+ * heuristics, so the branches that cannot improve it are pruned from the beginning. Unlike the
+ * dynamic programming methods, its cost does not depend on the capacity.
+ * <p>
+ * @version 1.0
+ */
+public class BranchAndBoundSolver {
+
+    /**
+     * The relative tolerance of the bounds, well above the rounding error of a sum of a million
+     * profits.
+     */
+    static final double TOLERANCE = 1e-9;
+
+    private final KnapsackProblem problem;
+    private final Timer timer;
+    private long nodes, prunes;
+
+    /**
+     * Creates a new instance of <code>BranchAndBoundSolver</code>.
+     * <p>
+     * @param problem The instance of the knapsack problem to solve.
+     */
+    public BranchAndBoundSolver(KnapsackProblem problem) {
+        this.problem = problem;
+        timer = new Timer();
+    }
+
+    /**
+     * Solves the knapsack problem.
+     * <p>
+     * @return The knapsack that contains an optimal solution to the problem.
+     */
+    public Knapsack solve() {
+        int m, j, top;
+        int[] order, weights, stack;
+        long[] prefixWeights;
+        double best;
+        double[] profits, prefixProfits;
+        boolean integral;
+        Knapsack incumbent;
+        BitSetKnapsack current;
+        SolveRecorder recorder;
+        recorder = Metrics.begin("BranchAndBound", problem.getId());
+        timer.start(-1);
+        nodes = 0;
+        prunes = 0;
+        incumbent = greedy(problem);
+        best = incumbent.getProfit();
+        /*
+         * Only the items that may improve a solution are considered, sorted by profit per weight
+         * unit.
+         */
+        order = candidates(problem);
+        m = order.length;
+        weights = new int[m];
+        profits = new double[m];
+        prefixWeights = new long[m + 1];
+        prefixProfits = new double[m + 1];
+        integral = true;
+        for (int k = 0; k < m; k++) {
+            weights[k] = problem.getWeights()[order[k]];
+            profits[k] = problem.getProfits()[order[k]];
+            prefixWeights[k + 1] = prefixWeights[k] + weights[k];
+            prefixProfits[k + 1] = prefixProfits[k] + profits[k];
+            integral &= profits[k] == Math.rint(profits[k]);
+        }
+        /*
+         * Explores the tree depth first, trying to pack every item before skipping it. The taken
+         * items are kept in a stack (and in the knapsack trail) so that backtracking costs O(1).
+         */
+        current = new BitSetKnapsack(problem);
+        stack = new int[m];
+        top = 0;
+        j = 0;
+        while (true) {
+            nodes++;
+            if (current.getProfit() > best) {
+                best = current.getProfit();
+                incumbent = current.snapshot();
+            }
+            if (j < m && !improves(bound(j, current.getCapacity(), current.getProfit(), weights, profits, prefixWeights, prefixProfits), best, integral)) {
+                prunes++;
+                j = m;
+            }
+            if (j < m) {
+                if (weights[j] <= current.getCapacity()) {
+                    current.pack(problem.getItem(order[j]));
+                    stack[top++] = j;
+                }
+                j++;
+                continue;
+            }
+            if (top == 0) {
+                break;
+            }
+            current.undo();
+            j = stack[--top] + 1;
+        }
+        recorder.end();
+        return incumbent;
+    }
+
+    /**
+     * Returns the number of nodes explored in the last search.
+     * <p>
+     * @return The number of nodes explored in the last search.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the number of nodes whose bound could not improve the best solution in the last
+     * search (each of them cuts a whole subtree).
+     * <p>
+     * @return The number of nodes pruned in the last search.
+     */
+    public long getPrunes() {
+        return prunes;
+    }
+
+    /**
+     * Returns the elapsed time since the search started.
+     * <p>
+     * @return The elapsed time since the search started.
+     */
+    public long getElapsedTime() {
+        return timer.getElapsedTime();
+    }
+
+    /**
+     * Returns the best solution found by the constructive heuristics.
+     * <p>
+     * @param problem The knapsack problem.
+     * @return The best solution found by the constructive heuristics.
+     */
+    static Knapsack greedy(KnapsackProblem problem) {
+        Knapsack knapsack, best;
+        best = null;
+        for (Heuristic heuristic : Heuristic.values()) {
+            knapsack = new ConstructiveSolver(problem).solve(new ConstructiveHeuristic(heuristic));
+            if (best == null || knapsack.getProfit() > best.getProfit()) {
+                best = knapsack;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Returns the positions of the items that fit in the empty knapsack and have a positive profit,
+     * sorted by profit per weight unit.
+     * <p>
+     * @param problem The knapsack problem.
+     * @return The positions of the candidate items.
+     */
+    static int[] candidates(KnapsackProblem problem) {
+        int m;
+        int[] order, candidates;
+        order = HeuristicIndex.sort(problem, Heuristic.MAX_PROFIT_PER_WEIGHT_UNIT);
+        candidates = new int[order.length];
+        m = 0;
+        for (int item : order) {
+            if (problem.getWeights()[item] <= problem.getCapacity() && problem.getProfits()[item] > 0) {
+                candidates[m++] = item;
+            }
+        }
+        return Arrays.copyOf(candidates, m);
+    }
+
+    /**
+     * Returns the Dantzig bound of the items from position j on, for the remaining capacity and
+     * the profit provided.
+     */
+    static double bound(int j, int capacity, double profit, int[] weights, double[] profits, long[] prefixWeights, double[] prefixProfits) {
+        int lo, hi, mid, t;
+        long limit;
+        /*
+         * Finds the break item: the first one (from j on) that does not fit after packing the
+         * previous ones.
+         */
+        limit = prefixWeights[j] + capacity;
+        lo = j;
+        hi = weights.length;
+        while (lo < hi) {
+            mid = (lo + hi + 1) >>> 1;
+            if (prefixWeights[mid] <= limit) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        t = lo;
+        profit += prefixProfits[t] - prefixProfits[j];
+        if (t < weights.length) {
+            profit += (limit - prefixWeights[t]) * profits[t] / weights[t];
+        }
+        return profit;
+    }
+
+    /**
+     * Revises if a bound may lead to a solution better than the best one. When all the profits are
+     * integers, the bound is rounded down first. The bound is a sum of many profits, so it may be
+     * below its exact value by a rounding error that grows with its magnitude; it is raised by
+     * {@link #TOLERANCE} times its magnitude (and at least by {@link #TOLERANCE}) before the test,
+     * so no node that may hold a better solution is pruned.
+     */
+    static boolean improves(double bound, double best, boolean integral) {
+        double tolerance;
+        tolerance = TOLERANCE * Math.max(1, Math.abs(bound));
+        if (integral) {
+            return Math.floor(bound + tolerance) > best;
+        }
+        return bound + tolerance > best;
+    }
+
+}
@@ -0,0 +1,499 @@
+package KP.Solvers.Exact;
+
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.SolveRecorder;
+import Utils.Timer;
+import java.util.Arrays;
+
+/**
+ * Provides an expanding core method to solve the knapsack problem exactly, as in the minknap
+ * algorithm by Pisinger.
+ * <p>
+ * The break item (the first item, in order of profit per weight unit, that does not fit after
+ * packing the previous ones) is found by repeatedly partitioning the items, without sorting them.
+ * The partitions that are left aside stay unsorted: the items above the break item are packed and
+ * the items below it are not. Starting from that solution, a dynamic programming list of the
+ * undominated states (weight and profit) is extended by packing the next item below the break item
+ * and removing the next item above it, alternately. The states whose bound cannot improve the best
+ * solution are discarded, and the search ends when no state is left. Only when the core (the sorted
+ * items around the break item) is exhausted the next partition is opened: its items that cannot
+ * lead to a better solution are discarded with the Dembo and Hammer bound and the remaining ones
+ * are sorted and added to the core.
+ * <p>
+ * On large instances the core usually stays small, so the running time is close to linear. Unlike
+ * a depth-first search over the core, the number of states is bounded by the capacity, so strongly
+ * correlated instances do not explode.
+ * <p>
+ * @version 1.0
+ */
+public class ExpandingCoreSolver {
+
+    private final KnapsackProblem problem;
+    private final Timer timer;
+    private int[] perm, core, hStack, lStack, changes, parents, stateChains, nextStateChains;
+    private long[] stateWeights, nextStateWeights;
+    private double[] ratios, stateProfits, nextStateProfits;
+    private int hSize, lSize, left, right, size, nbChanges, capacity, partitionEnd;
+    private long breakWeight;
+    private double breakProfit, breakRatio, z;
+    private boolean integral;
+    private long states;
+
+    /**
+     * Creates a new instance of <code>ExpandingCoreSolver</code>.
+     * <p>
+     * @param problem The instance of the knapsack problem to solve.
+     */
+    public ExpandingCoreSolver(KnapsackProblem problem) {
+        this.problem = problem;
+        timer = new Timer();
+    }
+
+    /**
+     * Solves the knapsack problem.
+     * <p>
+     * @return The knapsack that contains an optimal solution to the problem.
+     */
+    public Knapsack solve() {
+        int m, lo, hi, a, b, breakPosition, change;
+        int[] weights;
+        long total;
+        double[] profits;
+        boolean[] packed;
+        Knapsack knapsack;
+        SolveRecorder recorder;
+        recorder = Metrics.begin("ExpandingCore", problem.getId());
+        timer.start(-1);
+        states = 0;
+        weights = problem.getWeights();
+        profits = problem.getProfits();
+        ratios = problem.getProfitsPerWeightUnit();
+        capacity = problem.getCapacity();
+        /*
+         * Only the items that fit in the empty knapsack and have a positive profit may be part of
+         * an optimal solution.
+         */
+        perm = new int[weights.length];
+        m = 0;
+        total = 0;
+        integral = true;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] <= capacity && profits[i] > 0) {
+                perm[m++] = i;
+                total += weights[i];
+                integral &= profits[i] == Math.rint(profits[i]);
+            }
+        }
+        packed = new boolean[weights.length];
+        breakPosition = m;
+        core = new int[m];
+        hStack = new int[16];
+        lStack = new int[16];
+        hSize = 0;
+        lSize = 0;
+        left = 0;
+        right = 0;
+        change = -1;
+        if (total > capacity) {
+            /*
+             * Finds the break item by partitioning the items around a pivot ratio, and keeps the
+             * parts that are left aside in the stacks (the nearest to the break item on top).
+             */
+            breakWeight = 0;
+            breakProfit = 0;
+            lo = 0;
+            hi = m;
+            while (true) {
+                a = partition(lo, hi);
+                b = partitionEnd;
+                if (breakWeight + sumWeights(lo, a) > capacity) {
+                    push(false, a, hi);
+                    hi = a;
+                } else if (breakWeight + sumWeights(lo, b) > capacity) {
+                    push(true, lo, a);
+                    push(false, b, hi);
+                    breakWeight += sumWeights(lo, a);
+                    breakProfit += sumProfits(lo, a);
+                    breakPosition = a;
+                    while (breakWeight + weights[perm[breakPosition]] <= capacity) {
+                        breakWeight += weights[perm[breakPosition]];
+                        breakProfit += profits[perm[breakPosition]];
+                        breakPosition++;
+                    }
+                    lo = a;
+                    hi = b;
+                    break;
+                } else {
+                    push(true, lo, b);
+                    breakWeight += sumWeights(lo, b);
+                    breakProfit += sumProfits(lo, b);
+                    lo = b;
+                }
+            }
+            breakRatio = ratios[perm[breakPosition]];
+            z = breakProfit;
+            /*
+             * The items with the same ratio as the break item form the initial core, which is
+             * already sorted.
+             */
+            System.arraycopy(perm, lo, core, lo, hi - lo);
+            left = lo;
+            right = hi;
+            change = search(breakPosition - 1, breakPosition);
+        }
+        /*
+         * The solution is the break solution with the items in the chain of changes of the best
+         * state exchanged.
+         */
+        for (int k = 0; k < breakPosition; k++) {
+            packed[perm[k]] = true;
+        }
+        for (; change >= 0; change = parents[change]) {
+            packed[changes[change]] = !packed[changes[change]];
+        }
+        knapsack = new Knapsack(capacity);
+        for (int i = 0; i < packed.length; i++) {
+            if (packed[i]) {
+                knapsack.pack(problem.getItem(i));
+            }
+        }
+        recorder.end();
+        return knapsack;
+    }
+
+    /**
+     * Returns the number of states created in the last search.
+     * <p>
+     * @return The number of states created in the last search.
+     */
+    public long getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the number of items that were sorted in the last search (the size of the core).
+     * <p>
+     * @return The number of items that were sorted in the last search.
+     */
+    public int getCoreSize() {
+        return right - left;
+    }
+
+    /**
+     * Returns the elapsed time since the search started.
+     * <p>
+     * @return The elapsed time since the search started.
+     */
+    public long getElapsedTime() {
+        return timer.getElapsedTime();
+    }
+
+    /**
+     * Extends the list of undominated states from the break solution, packing item t and removing
+     * item s alternately, until no state may improve the best solution. Every state keeps the last
+     * item it exchanged, as an entry in a chain of changes that leads back to the break solution.
+     * <p>
+     * @return The last change of the best state, or -1 if the break solution is optimal.
+     */
+    private int search(int s, int t) {
+        int best, last;
+        boolean extended;
+        stateWeights = new long[16];
+        stateProfits = new double[16];
+        stateChains = new int[16];
+        nextStateWeights = new long[16];
+        nextStateProfits = new double[16];
+        nextStateChains = new int[16];
+        changes = new int[16];
+        parents = new int[16];
+        stateWeights[0] = breakWeight;
+        stateProfits[0] = breakProfit;
+        stateChains[0] = -1;
+        size = 1;
+        nbChanges = 0;
+        states = 1;
+        best = -1;
+        while (size > 0) {
+            extended = false;
+            if (t < right || expandRight()) {
+                merge(core[t++], true);
+                extended = true;
+            }
+            if (s >= left || expandLeft()) {
+                merge(core[s--], false);
+                extended = true;
+            }
+            if (!extended) {
+                break;
+            }
+            /*
+             * The states are sorted by weight and profit, so the best feasible state is the last
+             * one that fits.
+             */
+            last = -1;
+            for (int k = 0; k < size && stateWeights[k] <= capacity; k++) {
+                last = k;
+            }
+            if (last >= 0 && stateProfits[last] > z) {
+                z = stateProfits[last];
+                best = stateChains[last];
+            }
+            prune(t < right || expandRight() ? ratios[core[t]] : 0, s >= left || expandLeft() ? ratios[core[s]] : Double.POSITIVE_INFINITY);
+        }
+        return best;
+    }
+
+    /**
+     * Adds to the states the result of packing (or removing) an item in each of them, and keeps
+     * only the undominated ones: a state is dominated if another one weighs no more and has at
+     * least the same profit.
+     */
+    private void merge(int item, boolean pack) {
+        int i, j, k, chain;
+        long dw, w;
+        double dp, p, last;
+        long[] swapWeights;
+        double[] swapProfits;
+        int[] swapChains;
+        dw = pack ? problem.getWeights()[item] : -problem.getWeights()[item];
+        dp = pack ? problem.getProfits()[item] : -problem.getProfits()[item];
+        if (nextStateWeights.length < size << 1) {
+            nextStateWeights = new long[size << 2];
+            nextStateProfits = new double[size << 2];
+            nextStateChains = new int[size << 2];
+        }
+        i = 0;
+        j = 0;
+        k = 0;
+        last = Double.NEGATIVE_INFINITY;
+        while (i < size || j < size) {
+            if (j == size || i < size && (stateWeights[i] < stateWeights[j] + dw || stateWeights[i] == stateWeights[j] + dw && stateProfits[i] >= stateProfits[j] + dp)) {
+                w = stateWeights[i];
+                p = stateProfits[i];
+                chain = stateChains[i++];
+            } else {
+                w = stateWeights[j] + dw;
+                p = stateProfits[j] + dp;
+                chain = -2 - j++;
+            }
+            if (p > last) {
+                if (chain < -1) {
+                    chain = change(item, stateChains[-2 - chain]);
+                }
+                nextStateWeights[k] = w;
+                nextStateProfits[k] = p;
+                nextStateChains[k++] = chain;
+                last = p;
+            }
+        }
+        swapWeights = stateWeights;
+        stateWeights = nextStateWeights;
+        nextStateWeights = swapWeights;
+        swapProfits = stateProfits;
+        stateProfits = nextStateProfits;
+        nextStateProfits = swapProfits;
+        swapChains = stateChains;
+        stateChains = nextStateChains;
+        nextStateChains = swapChains;
+        size = k;
+    }
+
+    /**
+     * Discards the states whose bound cannot improve the best solution. A feasible state may still
+     * pack the items below the core, whose ratio is at most addRatio; an overfilled one must remove
+     * items above it, whose ratio is at least removeRatio.
+     */
+    private void prune(double addRatio, double removeRatio) {
+        int k;
+        double bound;
+        k = 0;
+        for (int i = 0; i < size; i++) {
+            if (stateWeights[i] <= capacity) {
+                bound = stateProfits[i] + (capacity - stateWeights[i]) * addRatio;
+            } else {
+                bound = stateProfits[i] + (capacity - stateWeights[i]) * removeRatio;
+            }
+            if (BranchAndBoundSolver.improves(bound, z, integral)) {
+                stateWeights[k] = stateWeights[i];
+                stateProfits[k] = stateProfits[i];
+                stateChains[k++] = stateChains[i];
+            }
+        }
+        size = k;
+    }
+
+    /**
+     * Records the exchange of an item after the change provided.
+     * <p>
+     * @return The index of the new change.
+     */
+    private int change(int item, int parent) {
+        if (nbChanges == changes.length) {
+            changes = Arrays.copyOf(changes, nbChanges << 1);
+            parents = Arrays.copyOf(parents, nbChanges << 1);
+        }
+        changes[nbChanges] = item;
+        parents[nbChanges] = parent;
+        states++;
+        return nbChanges++;
+    }
+
+
+    /**
+     * Adds to the core the next partition below the break item.
+     * <p>
+     * @return <code>true</code> if at least one item was added, <code>false</code> if there are no
+     * items left.
+     */
+    private boolean expandRight() {
+        int lo, hi, k;
+        while (lSize > 0) {
+            hi = lStack[--lSize];
+            lo = lStack[--lSize];
+            k = reduce(lo, hi, false);
+            sort(lo, lo + k);
+            System.arraycopy(perm, lo, core, right, k);
+            right += k;
+            if (k > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds to the core the next partition above the break item.
+     * <p>
+     * @return <code>true</code> if at least one item was added, <code>false</code> if there are no
+     * items left.
+     */
+    private boolean expandLeft() {
+        int lo, hi, k;
+        while (hSize > 0) {
+            hi = hStack[--hSize];
+            lo = hStack[--hSize];
+            k = reduce(lo, hi, true);
+            sort(lo, lo + k);
+            left -= k;
+            System.arraycopy(perm, lo, core, left, k);
+            if (k > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Moves to the beginning of a partition the items whose exchange may improve the best solution,
+     * according to the Dembo and Hammer bound.
+     * <p>
+     * @return The number of items kept.
+     */
+    private int reduce(int lo, int hi, boolean above) {
+        int k, item, swap;
+        double bound;
+        k = lo;
+        for (int j = lo; j < hi; j++) {
+            item = perm[j];
+            if (above) {
+                bound = breakProfit - problem.getProfits()[item] + (capacity - breakWeight + problem.getWeights()[item]) * breakRatio;
+            } else {
+                bound = breakProfit + problem.getProfits()[item] + (capacity - breakWeight - problem.getWeights()[item]) * breakRatio;
+            }
+            if (BranchAndBoundSolver.improves(bound, z, integral)) {
+                swap = perm[k];
+                perm[k++] = item;
+                perm[j] = swap;
+            }
+        }
+        return k - lo;
+    }
+
+    /**
+     * Partitions the items in [lo, hi) in three parts: the items whose ratio is greater than the
+     * pivot, equal to it and smaller than it. Returns the beginning of the second part and leaves
+     * the beginning of the third one in <code>partitionEnd</code>.
+     */
+    private int partition(int lo, int hi) {
+        int lt, gt, swap;
+        double pivot, x, y, w;
+        x = ratios[perm[lo]];
+        y = ratios[perm[(lo + hi - 1) >>> 1]];
+        w = ratios[perm[hi - 1]];
+        pivot = Math.max(Math.min(x, y), Math.min(Math.max(x, y), w));
+        lt = lo;
+        gt = hi;
+        for (int j = lo; j < gt;) {
+            if (ratios[perm[j]] > pivot) {
+                swap = perm[lt];
+                perm[lt++] = perm[j];
+                perm[j++] = swap;
+            } else if (ratios[perm[j]] < pivot) {
+                swap = perm[--gt];
+                perm[gt] = perm[j];
+                perm[j] = swap;
+            } else {
+                j++;
+            }
+        }
+        partitionEnd = gt;
+        return lt;
+    }
+
+    /**
+     * Sorts the items in [lo, hi) by profit per weight unit, in decreasing order.
+     */
+    private void sort(int lo, int hi) {
+        int a;
+        while (hi - lo > 1) {
+            a = partition(lo, hi);
+            if (a - lo < hi - partitionEnd) {
+                sort(lo, a);
+                lo = partitionEnd;
+            } else {
+                sort(partitionEnd, hi);
+                hi = a;
+            }
+        }
+    }
+
+    private void push(boolean above, int lo, int hi) {
+        if (lo >= hi) {
+            return;
+        }
+        if (above) {
+            hStack = ensure(hStack, hSize + 2);
+            hStack[hSize++] = lo;
+            hStack[hSize++] = hi;
+        } else {
+            lStack = ensure(lStack, lSize + 2);
+            lStack[lSize++] = lo;
+            lStack[lSize++] = hi;
+        }
+    }
+
+    private static int[] ensure(int[] array, int length) {
+        return array.length < length ? Arrays.copyOf(array, length << 1) : array;
+    }
+
+    private long sumWeights(int lo, int hi) {
+        long sum;
+        sum = 0;
+        for (int j = lo; j < hi; j++) {
+            sum += problem.getWeights()[perm[j]];
+        }
+        return sum;
+    }
+
+    private double sumProfits(int lo, int hi) {
+        double sum;
+        sum = 0;
+        for (int j = lo; j < hi; j++) {
+            sum += problem.getProfits()[perm[j]];
+        }
+        return sum;
+    }
+
+}
@@ -0,0 +1,291 @@
+package KP.Solvers.Exact;
+
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.SolveRecorder;
+import Utils.Timer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Provides a meet in the middle method to solve the knapsack problem exactly, as in the algorithm
+ * by Horowitz and Sahni, for instances with few items and any capacity.
+ * <p>
+ * The items are split in two halves, and the subsets of each half that fit in the knapsack are
+ * enumerated into primitive arrays sorted by weight, keeping only the undominated ones (a subset is
+ * dominated if another one weighs no more and has at least the same profit). Each list is built by
+ * adding the items one at a time and merging the list with its copy that packs the item, so it is
+ * sorted without sorting it, and the dominated subsets are discarded as soon as they appear. In an
+ * undominated list the profit grows with the weight, so the best partner of a subset of the first
+ * half is the heaviest subset of the second half that fits with it, and all the pairs are combined
+ * with a sweep of two pointers that move in opposite directions.
+ * <p>
+ * The two halves are enumerated at the same time, and the sweep is split in chunks of the first
+ * list that run in parallel, in the common fork-join pool. Each list holds at most
+ * 2<sup>n/2</sup> subsets (far less when many are dominated or do not fit) and never more than the
+ * maximum number of states of the solver, so the memory is bounded whatever the capacity. The
+ * subsets are kept as bit masks, so up to {@link #MAX_ITEMS} items that fit in the knapsack can be
+ * solved.
+ * <p>
+ * @version 1.0
+ */
+public class MeetInTheMiddleSolver {
+
+    /**
+     * The maximum number of items (among those that fit in the knapsack and have a positive
+     * profit) of the problems this solver can solve.
+     */
+    public static final int MAX_ITEMS = 62;
+
+    /**
+     * The maximum number of undominated subsets kept for each half by default.
+     */
+    public static final int DEFAULT_MAX_STATES = 1 << 24;
+
+    private final KnapsackProblem problem;
+    private final int maxStates;
+    private final Timer timer;
+    private long states;
+
+    /**
+     * Creates a new instance of <code>MeetInTheMiddleSolver</code> that keeps up to
+     * {@link #DEFAULT_MAX_STATES} subsets for each half.
+     * <p>
+     * @param problem The instance of the knapsack problem to solve.
+     */
+    public MeetInTheMiddleSolver(KnapsackProblem problem) {
+        this(problem, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * Creates a new instance of <code>MeetInTheMiddleSolver</code>.
+     * <p>
+     * @param problem The instance of the knapsack problem to solve.
+     * @param maxStates The maximum number of undominated subsets kept for each half (each one
+     * takes 16 bytes, twice as much while the list is built).
+     */
+    public MeetInTheMiddleSolver(KnapsackProblem problem, int maxStates) {
+        this.problem = problem;
+        this.maxStates = maxStates;
+        timer = new Timer();
+    }
+
+    /**
+     * Solves the knapsack problem.
+     * <p>
+     * @return The knapsack that contains an optimal solution to the problem.
+     * @throws IllegalArgumentException If more than {@link #MAX_ITEMS} items fit in the knapsack.
+     * @throws IllegalStateException If a half has more undominated subsets than the maximum number
+     * of states.
+     */
+    public Knapsack solve() {
+        int m, chunks, best;
+        int[] order;
+        int[][] halves, bestA, bestB;
+        double[] bestProfits;
+        Half[] lists;
+        Knapsack knapsack;
+        SolveRecorder recorder;
+        recorder = Metrics.begin("MeetInTheMiddle", problem.getId());
+        timer.start(-1);
+        order = BranchAndBoundSolver.candidates(problem);
+        m = order.length;
+        if (m > MAX_ITEMS) {
+            recorder.end();
+            throw new IllegalArgumentException("The problem \'" + problem.getId() + "\' has " + m + " items that fit in the knapsack (at most " + MAX_ITEMS + " are supported).");
+        }
+        /*
+         * The items are dealt alternately in order of profit per weight unit, so both halves are
+         * alike.
+         */
+        halves = new int[][]{new int[(m + 1) / 2], new int[m / 2]};
+        for (int k = 0; k < m; k++) {
+            halves[k % 2][k / 2] = order[k];
+        }
+        lists = new Half[2];
+        try {
+            IntStream.range(0, 2).parallel().forEach(h -> lists[h] = enumerate(halves[h]));
+        } catch (IllegalStateException e) {
+            recorder.end();
+            throw e;
+        }
+        states = (long) lists[0].size + lists[1].size;
+        /*
+         * Every chunk of the first list keeps its best pair.
+         */
+        chunks = Math.min(lists[0].size, 4 * ForkJoinPool.getCommonPoolParallelism());
+        bestProfits = new double[chunks];
+        bestA = new int[chunks][1];
+        bestB = new int[chunks][1];
+        IntStream.range(0, chunks).parallel().forEach(c -> bestProfits[c] = sweep(lists[0], lists[1],
+                (int) ((long) lists[0].size * c / chunks), (int) ((long) lists[0].size * (c + 1) / chunks), bestA[c], bestB[c]));
+        best = 0;
+        for (int c = 1; c < chunks; c++) {
+            if (bestProfits[c] > bestProfits[best]) {
+                best = c;
+            }
+        }
+        knapsack = new Knapsack(problem.getCapacity());
+        pack(knapsack, halves[0], lists[0].masks[bestA[best][0]]);
+        pack(knapsack, halves[1], lists[1].masks[bestB[best][0]]);
+        recorder.end();
+        return knapsack;
+    }
+
+    /**
+     * Returns the number of undominated subsets of both halves in the last search.
+     * <p>
+     * @return The number of undominated subsets of both halves in the last search.
+     */
+    public long getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the elapsed time since the search started.
+     * <p>
+     * @return The elapsed time since the search started.
+     */
+    public long getElapsedTime() {
+        return timer.getElapsedTime();
+    }
+
+    /**
+     * Returns the undominated subsets of the items provided that fit in the knapsack, sorted by
+     * weight.
+     */
+    private Half enumerate(int[] items) {
+        int n, i, j, fit, next, capacity, weight, w, mask;
+        double profit, p, last;
+        int[] weights, nextWeights, swapWeights, masks, nextMasks, swapMasks;
+        double[] profits, nextProfits, swapProfits;
+        capacity = problem.getCapacity();
+        weights = new int[16];
+        profits = new double[16];
+        masks = new int[16];
+        nextWeights = new int[16];
+        nextProfits = new double[16];
+        nextMasks = new int[16];
+        n = 1;
+        for (int t = 0; t < items.length; t++) {
+            weight = problem.getWeights()[items[t]];
+            profit = problem.getProfits()[items[t]];
+            /*
+             * Merges the subsets with their copies that pack the item. The subsets are sorted by
+             * weight, so the copies that fit come from a prefix of them, in the same order.
+             */
+            fit = 0;
+            while (fit < n && weights[fit] <= capacity - weight) {
+                fit++;
+            }
+            if (nextWeights.length < n + fit) {
+                nextWeights = new int[(n + fit) << 1];
+                nextProfits = new double[(n + fit) << 1];
+                nextMasks = new int[(n + fit) << 1];
+            }
+            i = 0;
+            j = 0;
+            next = 0;
+            last = Double.NEGATIVE_INFINITY;
+            while (i < n || j < fit) {
+                if (j == fit || i < n && (weights[i] < weights[j] + weight || weights[i] == weights[j] + weight && profits[i] >= profits[j] + profit)) {
+                    w = weights[i];
+                    p = profits[i];
+                    mask = masks[i++];
+                } else {
+                    w = weights[j] + weight;
+                    p = profits[j] + profit;
+                    mask = masks[j++] | 1 << t;
+                }
+                if (p > last) {
+                    nextWeights[next] = w;
+                    nextProfits[next] = p;
+                    nextMasks[next++] = mask;
+                    last = p;
+                }
+            }
+            if (next > maxStates) {
+                throw new IllegalStateException("The problem \'" + problem.getId() + "\' has more than " + maxStates + " undominated subsets in a half.");
+            }
+            swapWeights = weights;
+            weights = nextWeights;
+            nextWeights = swapWeights;
+            swapProfits = profits;
+            profits = nextProfits;
+            nextProfits = swapProfits;
+            swapMasks = masks;
+            masks = nextMasks;
+            nextMasks = swapMasks;
+            n = next;
+        }
+        return new Half(weights, profits, masks, n);
+    }
+
+    /**
+     * Finds the best pair of a subset of the first list, between the positions provided, and a
+     * subset of the second one, and returns its profit.
+     */
+    private double sweep(Half a, Half b, int from, int to, int[] bestA, int[] bestB) {
+        int j, lo, hi, mid, capacity;
+        double best;
+        capacity = problem.getCapacity();
+        /*
+         * Finds the heaviest subset of the second list that fits with the first subset of the
+         * chunk; the lighter subsets of the chunk can only move it down.
+         */
+        lo = 0;
+        hi = b.size - 1;
+        while (lo < hi) {
+            mid = (lo + hi + 1) >>> 1;
+            if (b.weights[mid] <= capacity - a.weights[from]) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        j = lo;
+        best = Double.NEGATIVE_INFINITY;
+        for (int i = from; i < to; i++) {
+            while (b.weights[j] > capacity - a.weights[i]) {
+                j--;
+            }
+            if (a.profits[i] + b.profits[j] > best) {
+                best = a.profits[i] + b.profits[j];
+                bestA[0] = i;
+                bestB[0] = j;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Packs the items of a half in the subset provided.
+     */
+    private void pack(Knapsack knapsack, int[] items, int mask) {
+        for (int t = 0; t < items.length; t++) {
+            if ((mask & 1 << t) != 0) {
+                knapsack.pack(problem.getItem(items[t]));
+            }
+        }
+    }
+
+    /**
+     * The undominated subsets of a half, sorted by weight.
+     */
+    private static class Half {
+
+        private final int[] weights;
+        private final double[] profits;
+        private final int[] masks;
+        private final int size;
+
+        Half(int[] weights, double[] profits, int[] masks, int size) {
+            this.weights = weights;
+            this.profits = profits;
+            this.masks = masks;
+            this.size = size;
+        }
+    }
+
+}
@@ -0,0 +1,312 @@
+package KP.Solvers.Exact;
+
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.SolveRecorder;
+import Utils.Timer;
+import java.util.Arrays;
+
+/**
+ * Provides a sparse dynamic programming method to solve the knapsack problem exactly, as in the
+ * algorithm by Nemhauser and Ullmann.
+ * <p>
+ * Instead of a table with a column for every capacity, every stage keeps only the undominated
+ * states (weight and profit) of the items considered so far: a state is dominated if another one
+ * weighs no more and has at least the same profit. The states are kept sorted by weight in
+ * primitive arrays, so adding an item merges the states with their copies that pack it in a single
+ * pass, and the undominated ones are those whose profit is larger than the profit of all the
+ * lighter ones. The items are added in order of profit per weight unit, starting from the best
+ * solution found by the constructive heuristics, and the states whose Dantzig bound over the items
+ * not added yet cannot improve the best solution are discarded. Every state keeps the last item it
+ * packed, as an entry in a chain that leads back to the empty knapsack, to rebuild the solution.
+ * <p>
+ * The cost is the sum of the sizes of the frontiers (see {@link #getStates()}), which does not
+ * depend on the capacity, while the table of <code>ConstructiveSolver.solve()</code> costs the
+ * number of items times the capacity. When the largest frontier is much smaller than the capacity
+ * this method is faster, and it can solve instances whose capacity is too large for the table.
+ * <p>
+ * @version 1.0
+ */
+public class ParetoSolver {
+
+    private final KnapsackProblem problem;
+    private final Timer timer;
+    private int[] stateWeights, nextStateWeights, stateChains, nextStateChains, items, parents, frontierSizes;
+    private double[] stateProfits, nextStateProfits;
+    private int size, nbChanges, bestChain;
+    private long states;
+
+    /**
+     * Creates a new instance of <code>ParetoSolver</code>.
+     * <p>
+     * @param problem The instance of the knapsack problem to solve.
+     */
+    public ParetoSolver(KnapsackProblem problem) {
+        this.problem = problem;
+        timer = new Timer();
+    }
+
+    /**
+     * Solves the knapsack problem.
+     * <p>
+     * @return The knapsack that contains an optimal solution to the problem.
+     */
+    public Knapsack solve() {
+        int m, capacity, kept, limit;
+        int[] order, weights;
+        long[] prefixWeights;
+        double best, bound;
+        double[] profits, prefixProfits;
+        boolean integral;
+        Knapsack knapsack;
+        SolveRecorder recorder;
+        recorder = Metrics.begin("Pareto", problem.getId());
+        timer.start(-1);
+        states = 0;
+        capacity = problem.getCapacity();
+        knapsack = BranchAndBoundSolver.greedy(problem);
+        best = knapsack.getProfit();
+        bestChain = -2;
+        /*
+         * The heuristics may pack items with a negative profit, so the empty knapsack may be
+         * better.
+         */
+        if (best < 0) {
+            best = 0;
+            bestChain = -1;
+        }
+        /*
+         * Only the items that may improve a solution are considered, sorted by profit per weight
+         * unit, so the bounds are tight from the first stages.
+         */
+        order = BranchAndBoundSolver.candidates(problem);
+        m = order.length;
+        weights = new int[m];
+        profits = new double[m];
+        prefixWeights = new long[m + 1];
+        prefixProfits = new double[m + 1];
+        integral = true;
+        for (int k = 0; k < m; k++) {
+            weights[k] = problem.getWeights()[order[k]];
+            profits[k] = problem.getProfits()[order[k]];
+            prefixWeights[k + 1] = prefixWeights[k] + weights[k];
+            prefixProfits[k + 1] = prefixProfits[k] + profits[k];
+            integral &= profits[k] == Math.rint(profits[k]);
+        }
+        stateWeights = new int[16];
+        stateProfits = new double[16];
+        stateChains = new int[16];
+        nextStateWeights = new int[16];
+        nextStateProfits = new double[16];
+        nextStateChains = new int[16];
+        items = new int[16];
+        parents = new int[16];
+        frontierSizes = new int[m];
+        nbChanges = 0;
+        limit = 1 << 10;
+        /*
+         * The first frontier has only the empty knapsack.
+         */
+        stateChains[0] = -1;
+        size = 1;
+        for (int k = 0; k < m && size > 0; k++) {
+            merge(k, weights[k], profits[k], capacity);
+            /*
+             * The heaviest state is the most profitable one.
+             */
+            if (stateProfits[size - 1] > best) {
+                best = stateProfits[size - 1];
+                bestChain = stateChains[size - 1];
+            }
+            kept = 0;
+            for (int i = 0; i < size; i++) {
+                bound = BranchAndBoundSolver.bound(k + 1, capacity - stateWeights[i], stateProfits[i], weights, profits, prefixWeights, prefixProfits);
+                if (BranchAndBoundSolver.improves(bound, best, integral)) {
+                    stateWeights[kept] = stateWeights[i];
+                    stateProfits[kept] = stateProfits[i];
+                    stateChains[kept++] = stateChains[i];
+                }
+            }
+            size = kept;
+            frontierSizes[k] = size;
+            states += size;
+            if (nbChanges >= limit) {
+                compact();
+                limit = Math.max(limit, nbChanges << 1);
+            }
+        }
+        /*
+         * The heuristic solution is optimal unless a state (or the empty knapsack) improved it.
+         */
+        if (bestChain > -2) {
+            knapsack = new Knapsack(capacity);
+            for (int chain = bestChain; chain >= 0; chain = parents[chain]) {
+                knapsack.pack(problem.getItem(order[items[chain]]));
+            }
+        }
+        recorder.end();
+        return knapsack;
+    }
+
+    /**
+     * Returns the number of undominated states kept after adding each item in the last search, in
+     * the order the items were added (by profit per weight unit). The items that cannot be part of
+     * a better solution are not added, and the sizes of the stages after the search ended are zero.
+     * <p>
+     * @return The sizes of the frontiers of the last search.
+     */
+    public int[] getFrontierSizes() {
+        return frontierSizes.clone();
+    }
+
+    /**
+     * Returns the size of the largest frontier of the last search.
+     * <p>
+     * @return The size of the largest frontier of the last search.
+     */
+    public int getMaxFrontierSize() {
+        int max;
+        max = 0;
+        for (int frontierSize : frontierSizes) {
+            max = Math.max(max, frontierSize);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the total number of states kept in the last search (the sum of the sizes of the
+     * frontiers), which is comparable to the number of cells of the dynamic programming table.
+     * <p>
+     * @return The number of states kept in the last search.
+     */
+    public long getStates() {
+        return states;
+    }
+
+    /**
+     * Returns the elapsed time since the search started.
+     * <p>
+     * @return The elapsed time since the search started.
+     */
+    public long getElapsedTime() {
+        return timer.getElapsedTime();
+    }
+
+    /**
+     * Merges the states with their copies that pack item k (those that fit), keeping only the
+     * undominated ones.
+     */
+    private void merge(int k, int weight, double profit, int capacity) {
+        int i, j, n, next, w, chain;
+        double p, last;
+        int[] swapWeights, swapChains;
+        double[] swapProfits;
+        /*
+         * The states are sorted by weight, so the copies that fit come from a prefix of them.
+         */
+        n = 0;
+        while (n < size && stateWeights[n] <= capacity - weight) {
+            n++;
+        }
+        if (nextStateWeights.length < size + n) {
+            nextStateWeights = new int[(size + n) << 1];
+            nextStateProfits = new double[(size + n) << 1];
+            nextStateChains = new int[(size + n) << 1];
+        }
+        i = 0;
+        j = 0;
+        next = 0;
+        last = Double.NEGATIVE_INFINITY;
+        while (i < size || j < n) {
+            if (j == n || i < size && (stateWeights[i] < stateWeights[j] + weight || stateWeights[i] == stateWeights[j] + weight && stateProfits[i] >= stateProfits[j] + profit)) {
+                w = stateWeights[i];
+                p = stateProfits[i];
+                chain = stateChains[i++];
+            } else {
+                w = stateWeights[j] + weight;
+                p = stateProfits[j] + profit;
+                chain = -2 - j++;
+            }
+            if (p > last) {
+                if (chain < -1) {
+                    chain = change(k, stateChains[-2 - chain]);
+                }
+                nextStateWeights[next] = w;
+                nextStateProfits[next] = p;
+                nextStateChains[next++] = chain;
+                last = p;
+            }
+        }
+        swapWeights = stateWeights;
+        stateWeights = nextStateWeights;
+        nextStateWeights = swapWeights;
+        swapProfits = stateProfits;
+        stateProfits = nextStateProfits;
+        nextStateProfits = swapProfits;
+        swapChains = stateChains;
+        stateChains = nextStateChains;
+        nextStateChains = swapChains;
+        size = next;
+    }
+
+    /**
+     * Discards the changes that cannot be reached from the states nor from the best one (most of
+     * the states created are dominated or pruned later), keeping the others in the same order.
+     */
+    private void compact() {
+        int live;
+        int[] remap;
+        remap = new int[nbChanges];
+        for (int i = 0; i < size; i++) {
+            mark(stateChains[i], remap);
+        }
+        mark(bestChain, remap);
+        /*
+         * A parent is always created before its children, so it is moved before them.
+         */
+        live = 0;
+        for (int c = 0; c < nbChanges; c++) {
+            if (remap[c] != 0) {
+                items[live] = items[c];
+                parents[live] = parents[c] < 0 ? parents[c] : remap[parents[c]] - 1;
+                remap[c] = ++live;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (stateChains[i] >= 0) {
+                stateChains[i] = remap[stateChains[i]] - 1;
+            }
+        }
+        if (bestChain >= 0) {
+            bestChain = remap[bestChain] - 1;
+        }
+        nbChanges = live;
+    }
+
+    /**
+     * Marks a change and its ancestors as reachable.
+     */
+    private void mark(int chain, int[] remap) {
+        while (chain >= 0 && remap[chain] == 0) {
+            remap[chain] = 1;
+            chain = parents[chain];
+        }
+    }
+
+    /**
+     * Records the packing of item k after the change provided.
+     * <p>
+     * @return The index of the new change.
+     */
+    private int change(int k, int parent) {
+        if (nbChanges == items.length) {
+            items = Arrays.copyOf(items, nbChanges << 1);
+            parents = Arrays.copyOf(parents, nbChanges << 1);
+        }
+        items[nbChanges] = k;
+        parents[nbChanges] = parent;
+        return nbChanges++;
+    }
+
+}
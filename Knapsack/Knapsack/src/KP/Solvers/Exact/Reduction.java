@@ -0,0 +1,272 @@
+package KP.Solvers.Exact;
+
+import KP.Item;
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Metrics.Metrics;
+import KP.Metrics.SolveRecorder;
+import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
+import KP.Solvers.Constructive.Heuristics.HeuristicIndex;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Reduces a knapsack problem before solving it exactly, by fixing the items that are in (or out of)
+ * every solution better than a greedy one.
+ * <p>
+ * The greedy solution is the best one that packs the items that fit in the order of a constructive
+ * heuristic, which costs a single pass over the sorted items per heuristic (without running the
+ * heuristics themselves). For every item that fits in the knapsack and has a positive profit, the
+ * Dantzig bound is computed twice: once with the item packed and once without it (over the other
+ * items, in order of profit per weight unit). If the bound with the item packed cannot improve the
+ * greedy solution, no better solution packs it and it is fixed out; if the bound without the item
+ * cannot improve it, every better solution packs it and it is fixed in. The items that do not fit
+ * or have no profit are fixed out. The items that are not fixed form the residual problem, whose
+ * capacity is the capacity left by the items fixed in, and the positions of its items in the
+ * original problem are kept to map its solutions back.
+ * <p>
+ * Any exact method can solve the residual problem: {@link #restore(Knapsack)} packs the items fixed
+ * in plus those of its solution, and returns the greedy solution instead when it is at least as
+ * good (the residual problem may only hold solutions that are not better than it). For instance,
+ * <code>new Reduction(problem).solve(p -&gt; new BranchAndBoundSolver(p).solve())</code>.
+ * <p>
+ * @version 1.0
+ */
+public class Reduction {
+
+    private final KnapsackProblem problem;
+    private final KnapsackProblem residual;
+    private final Knapsack incumbent;
+    private final int[] itemIds;
+    private final int[] packed;
+    private final long nanos;
+
+    /**
+     * Creates a new instance of <code>Reduction</code> and reduces the problem provided.
+     * <p>
+     * @param problem The instance of the knapsack problem to reduce.
+     */
+    public Reduction(KnapsackProblem problem) {
+        int m, capacity, nbPacked, nbFree;
+        long start;
+        int[] order, weights, fixed, free, ids, residualWeights;
+        long[] prefixWeights;
+        long packedWeight;
+        double best;
+        double[] profits, prefixProfits, residualProfits;
+        boolean integral;
+        Knapsack greedy, knapsack;
+        SolveRecorder recorder;
+        this.problem = problem;
+        recorder = Metrics.begin("Reduction", problem.getId());
+        start = System.nanoTime();
+        capacity = problem.getCapacity();
+        order = BranchAndBoundSolver.candidates(problem);
+        m = order.length;
+        weights = new int[m];
+        profits = new double[m];
+        prefixWeights = new long[m + 1];
+        prefixProfits = new double[m + 1];
+        integral = true;
+        for (int k = 0; k < m; k++) {
+            weights[k] = problem.getWeights()[order[k]];
+            profits[k] = problem.getProfits()[order[k]];
+            prefixWeights[k + 1] = prefixWeights[k] + weights[k];
+            prefixProfits[k + 1] = prefixProfits[k] + profits[k];
+            integral &= profits[k] == Math.rint(profits[k]);
+        }
+        /*
+         * The lower bound of the tests is the best greedy solution in the orders of the
+         * constructive heuristics.
+         */
+        greedy = null;
+        for (Heuristic heuristic : Heuristic.values()) {
+            knapsack = greedy(problem, HeuristicIndex.sort(problem, heuristic));
+            if (greedy == null || knapsack.getProfit() > greedy.getProfit()) {
+                greedy = knapsack;
+            }
+        }
+        incumbent = greedy;
+        best = greedy.getProfit();
+        fixed = new int[m];
+        free = new int[m];
+        nbPacked = 0;
+        nbFree = 0;
+        packedWeight = 0;
+        for (int k = 0; k < m; k++) {
+            if (!BranchAndBoundSolver.improves(bound(k, capacity - weights[k], profits[k], weights, profits, prefixWeights, prefixProfits), best, integral)) {
+                continue;
+            }
+            if (!BranchAndBoundSolver.improves(bound(k, capacity, 0, weights, profits, prefixWeights, prefixProfits), best, integral)) {
+                fixed[nbPacked++] = order[k];
+                packedWeight += weights[k];
+            } else {
+                free[nbFree++] = order[k];
+            }
+        }
+        /*
+         * If the items fixed in do not fit together, no solution is better than the greedy one.
+         */
+        if (packedWeight > capacity) {
+            nbPacked = 0;
+            nbFree = 0;
+            packedWeight = capacity;
+        }
+        capacity -= (int) packedWeight;
+        ids = new int[nbFree];
+        m = 0;
+        for (int t = 0; t < nbFree; t++) {
+            if (problem.getWeights()[free[t]] <= capacity) {
+                ids[m++] = free[t];
+            }
+        }
+        /*
+         * The residual items keep their original order.
+         */
+        Arrays.sort(ids, 0, m);
+        itemIds = Arrays.copyOf(ids, m);
+        residualWeights = new int[m];
+        residualProfits = new double[m];
+        for (int t = 0; t < m; t++) {
+            residualWeights[t] = problem.getWeights()[itemIds[t]];
+            residualProfits[t] = problem.getProfits()[itemIds[t]];
+        }
+        residual = new KnapsackProblem(residualWeights, residualProfits, capacity, problem.getId());
+        packed = Arrays.copyOf(fixed, nbPacked);
+        nanos = System.nanoTime() - start;
+        recorder.end();
+    }
+
+    /**
+     * Returns the residual problem: the items that are not fixed, in their original order, and the
+     * capacity left by the items fixed in.
+     * <p>
+     * @return The residual problem.
+     */
+    public KnapsackProblem getProblem() {
+        return residual;
+    }
+
+    /**
+     * Returns the positions in the original problem of the items of the residual problem.
+     * <p>
+     * @return The positions in the original problem of the items of the residual problem.
+     */
+    public int[] getItemIds() {
+        return itemIds.clone();
+    }
+
+    /**
+     * Returns the number of items fixed in or out of the solution.
+     * <p>
+     * @return The number of items fixed.
+     */
+    public int getNbFixed() {
+        return problem.getNbItems() - itemIds.length;
+    }
+
+    /**
+     * Returns the number of items fixed in the solution.
+     * <p>
+     * @return The number of items fixed in the solution.
+     */
+    public int getNbPacked() {
+        return packed.length;
+    }
+
+    /**
+     * Returns the profit of the greedy solution, a lower bound of the optimum.
+     * <p>
+     * @return The profit of the greedy solution.
+     */
+    public double getLowerBound() {
+        return incumbent.getProfit();
+    }
+
+    /**
+     * Returns the time spent reducing the problem, the same interval that the metrics of the
+     * reduction measure.
+     * <p>
+     * @return The time spent reducing the problem, in nanoseconds.
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * Maps a solution of the residual problem back to the original problem.
+     * <p>
+     * @param solution A solution of the residual problem.
+     * @return The knapsack with the items fixed in and the items of the solution, or a copy of the
+     * greedy solution if it is at least as good.
+     */
+    public Knapsack restore(Knapsack solution) {
+        Knapsack knapsack;
+        knapsack = new Knapsack(problem.getCapacity());
+        for (int item : packed) {
+            knapsack.pack(problem.getItem(item));
+        }
+        for (Item item : solution.getItems()) {
+            knapsack.pack(problem.getItem(itemIds[item.getId()]));
+        }
+        if (knapsack.getProfit() <= incumbent.getProfit()) {
+            return new Knapsack(incumbent);
+        }
+        return knapsack;
+    }
+
+    /**
+     * Solves the residual problem with the exact method provided and maps its solution back to the
+     * original problem.
+     * <p>
+     * @param solver The exact method that solves a problem.
+     * @return The knapsack that contains an optimal solution to the original problem.
+     */
+    public Knapsack solve(Function<KnapsackProblem, Knapsack> solver) {
+        return restore(solver.apply(residual));
+    }
+
+    /**
+     * Packs the items with a positive profit that fit, in the order provided.
+     */
+    private static Knapsack greedy(KnapsackProblem problem, int[] order) {
+        Knapsack knapsack;
+        knapsack = new Knapsack(problem.getCapacity());
+        for (int item : order) {
+            if (problem.getProfits()[item] > 0 && problem.getWeights()[item] <= knapsack.getCapacity()) {
+                knapsack.pack(problem.getItem(item));
+            }
+        }
+        return knapsack;
+    }
+
+    /**
+     * Returns the Dantzig bound of all the items except the one at position j, for the capacity and
+     * the profit provided.
+     */
+    private static double bound(int j, int capacity, double profit, int[] weights, double[] profits, long[] prefixWeights, double[] prefixProfits) {
+        int lo, hi, mid, t;
+        /*
+         * Finds the break item without item j: the weights before position k add up to
+         * prefixWeights[k], minus the weight of item j when it is before k. The break item is never
+         * item j, since skipping it does not change the sum.
+         */
+        lo = 0;
+        hi = weights.length;
+        while (lo < hi) {
+            mid = (lo + hi + 1) >>> 1;
+            if (prefixWeights[mid] - (mid > j ? weights[j] : 0) <= capacity) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        t = lo;
+        profit += prefixProfits[t] - (t > j ? profits[j] : 0);
+        if (t < weights.length) {
+            profit += (capacity - prefixWeights[t] + (t > j ? weights[j] : 0)) * profits[t] / weights[t];
+        }
+        return profit;
+    }
+
+}
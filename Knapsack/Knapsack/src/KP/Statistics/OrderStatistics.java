@@ -0,0 +1,373 @@
+package KP.Statistics;
+
+/**
+ * Provides the descriptive statistics of a set of values from which values can be removed, without
+ * recomputing them from scratch.
+ * <p>
+ * The sum and the sum of squares of the values are updated on every removal, so the mean and the
+ * standard deviation cost O(1). They differ from <code>Utils.Statistical</code> over the values left
+ * by the rounding of the removals: with fractional values, a relative error of about 1e-12 for the
+ * mean and at most about 1e-9 for the standard deviation, which is computed again over the values
+ * left when the running sums cancel out. The values are sorted once and a binary indexed tree counts which
+ * of them remain, so any order statistic (and therefore the median and the quartiles) costs
+ * O(log n). All the statistics follow the definitions of <code>Utils.Statistical</code>, including
+ * the way it builds the lower and upper halves of the data for the quartiles.
+ * <p>
+ * @version 1.0
+ */
+public class OrderStatistics implements Summary {
+
+    /**
+     * The relative size under which the squared deviations computed from the running sums are
+     * dominated by the rounding errors of the removals (about 1e-16 times the sum of squares per
+     * removal), so they are computed again over the values left.
+     */
+    public static final double CANCELLATION = 1e-6;
+
+    private final double[] sorted;
+    private final int[] ranks, tree;
+    private final boolean[] removed;
+    private int size, mask;
+    private double sum, sumOfSquares;
+
+    /**
+     * Creates a new instance of <code>OrderStatistics</code> that contains all the values provided.
+     * <p>
+     * @param values The values. The array is not modified nor kept by this instance.
+     */
+    public OrderStatistics(double[] values) {
+        int n;
+        int[] order;
+        n = values.length;
+        order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        sort(values, order, false);
+        sorted = new double[n];
+        ranks = new int[n];
+        tree = new int[n + 1];
+        removed = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            sorted[i] = values[order[i]];
+            ranks[order[i]] = i;
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+        }
+        /*
+         * Builds the tree with all the values present in O(n).
+         */
+        for (int i = 1; i <= n; i++) {
+            tree[i]++;
+            if (i + (i & -i) <= n) {
+                tree[i + (i & -i)] += tree[i];
+            }
+        }
+        size = n;
+        mask = Integer.highestOneBit(Math.max(n, 1));
+    }
+
+    /**
+     * Removes a value from this set.
+     * <p>
+     * @param i The position of the value in the array used to create this instance.
+     */
+    public void remove(int i) {
+        double value;
+        if (removed[i]) {
+            return;
+        }
+        removed[i] = true;
+        value = sorted[ranks[i]];
+        sum -= value;
+        sumOfSquares -= value * value;
+        size--;
+        for (int k = ranks[i] + 1; k < tree.length; k += k & -k) {
+            tree[k]--;
+        }
+    }
+
+    /**
+     * Returns the number of values in this set.
+     * <p>
+     * @return The number of values in this set.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the sum of the values in this set.
+     * <p>
+     * @return The sum of the values in this set.
+     */
+    @Override
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the sum of the squares of the values in this set.
+     * <p>
+     * @return The sum of the squares of the values in this set.
+     */
+    @Override
+    public double sumOfSquares() {
+        return sumOfSquares;
+    }
+
+    /**
+     * Returns the sample standard deviation of the values in this set (zero if the set contains
+     * less than two values). It is computed from the running sums, unless the squared deviations
+     * are at most {@link #CANCELLATION} times the sum of squares (as when the values left are
+     * almost equal); then it is computed again over the values left, as
+     * <code>Utils.Statistical.stdev</code>, which costs O(n).
+     * <p>
+     * @return The sample standard deviation of the values in this set.
+     */
+    @Override
+    public double stdev() {
+        double squares;
+        double[] values;
+        if (size <= 1) {
+            return 0;
+        }
+        squares = sumOfSquares - sum * sum / size;
+        if (squares > CANCELLATION * sumOfSquares) {
+            return Math.sqrt(squares / (size - 1));
+        }
+        values = values();
+        return StatisticsKernel.stdev(values, values.length);
+    }
+
+    /**
+     * Returns the values in this set, in the order of the array used to create this instance.
+     * <p>
+     * @return The values in this set.
+     */
+    public double[] values() {
+        int k;
+        double[] values;
+        values = new double[size];
+        k = 0;
+        for (int i = 0; i < removed.length; i++) {
+            if (!removed[i]) {
+                values[k++] = sorted[ranks[i]];
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the rank of a value among all the values used to create this instance (removed or
+     * not). Equal values are ranked by their position in the array.
+     * <p>
+     * @param i The position of the value in the array used to create this instance.
+     * @return The rank of the value, starting at zero.
+     */
+    public int rank(int i) {
+        return ranks[i];
+    }
+
+    /**
+     * Returns the k-th smallest value in this set.
+     * <p>
+     * @param k The rank of the value, starting at zero.
+     * @return The k-th smallest value in this set.
+     */
+    public double get(int k) {
+        int position;
+        position = 0;
+        k++;
+        for (int step = mask; step > 0; step >>= 1) {
+            if (position + step < tree.length && tree[position + step] < k) {
+                position += step;
+                k -= tree[position];
+            }
+        }
+        return sorted[position];
+    }
+
+    /**
+     * Returns the number of values in this set that are smaller than the value provided.
+     * <p>
+     * @param value The value to compare with.
+     * @return The number of values in this set that are smaller than the value provided.
+     */
+    public int countLess(double value) {
+        int lo, hi, mid, count;
+        lo = 0;
+        hi = sorted.length;
+        while (lo < hi) {
+            mid = (lo + hi) >>> 1;
+            if (sorted[mid] < value) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        count = 0;
+        for (int k = lo; k > 0; k -= k & -k) {
+            count += tree[k];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the largest value in this set (as <code>Utils.Statistical.max</code>, never smaller
+     * than <code>Double.MIN_VALUE</code>).
+     * <p>
+     * @return The largest value in this set, or <code>NaN</code> if the set is empty.
+     */
+    @Override
+    public double max() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        return Math.max(get(size - 1), Double.MIN_VALUE);
+    }
+
+    /**
+     * Returns the median of the values in this set.
+     * <p>
+     * @return The median of the values in this set, or <code>NaN</code> if the set is empty.
+     */
+    @Override
+    public double median() {
+        if (size == 0) {
+            return Double.NaN;
+        }
+        if (size % 2 == 1) {
+            return get(size / 2);
+        }
+        return (get(size / 2 - 1) + get(size / 2)) / 2.0;
+    }
+
+    /**
+     * Returns the lower quartile of the values in this set. As in <code>Utils.Statistical</code>,
+     * it is the median of an array of length n / 2 + 1 that holds the values smaller than the
+     * median, the median itself and zeros in the remaining positions.
+     * <p>
+     * @return The lower quartile of the values in this set, or <code>NaN</code> if the set is
+     * empty.
+     */
+    @Override
+    public double lowerQuartile() {
+        int length;
+        double median;
+        if (size == 0) {
+            return Double.NaN;
+        }
+        median = median();
+        length = size / 2 + 1;
+        if (length % 2 == 1) {
+            return lowerSubsetValue(length / 2, length, median);
+        }
+        return (lowerSubsetValue(length / 2 - 1, length, median) + lowerSubsetValue(length / 2, length, median)) / 2.0;
+    }
+
+    /**
+     * Returns the upper quartile of the values in this set. As in <code>Utils.Statistical</code>,
+     * it is the median of the upper half of the sorted values, which also contains the median when
+     * the number of values is even.
+     * <p>
+     * @return The upper quartile of the values in this set, or <code>NaN</code> if the set is
+     * empty.
+     */
+    @Override
+    public double upperQuartile() {
+        int length;
+        double median;
+        if (size == 0) {
+            return Double.NaN;
+        }
+        median = median();
+        length = size / 2 + 1;
+        if (length % 2 == 1) {
+            return upperSubsetValue(length / 2, median);
+        }
+        return (upperSubsetValue(length / 2 - 1, median) + upperSubsetValue(length / 2, median)) / 2.0;
+    }
+
+    /**
+     * Returns the j-th smallest value of the lower subset used by the lower quartile.
+     */
+    private double lowerSubsetValue(int j, int length, double median) {
+        int smaller, negatives, zeros;
+        smaller = countLess(median);
+        negatives = Math.min(smaller, countLess(0));
+        zeros = length - 1 - smaller;
+        if (j < negatives) {
+            return get(j);
+        }
+        if (median <= 0) {
+            return j == negatives ? median : 0;
+        }
+        if (j < negatives + zeros) {
+            return 0;
+        }
+        if (j < smaller + zeros) {
+            return get(j - zeros);
+        }
+        return median;
+    }
+
+    /**
+     * Returns the j-th smallest value of the upper subset used by the upper quartile.
+     */
+    private double upperSubsetValue(int j, double median) {
+        if (size % 2 == 0) {
+            return j == 0 ? median : get(size / 2 + j - 1);
+        }
+        return get(size / 2 + j);
+    }
+
+    /**
+     * Sorts positions by the keys they point to (stable merge sort), so that equal keys keep the
+     * order of the positions provided.
+     * <p>
+     * @param keys The keys.
+     * @param order The positions to sort, sorted in place.
+     * @param decreasing <code>true</code> to sort the keys in decreasing order, <code>false</code>
+     * to sort them in increasing order.
+     * @return The positions sorted.
+     */
+    public static int[] sort(double[] keys, int[] order, boolean decreasing) {
+        int n, k, left, right, mid, end;
+        int[] sorted, tmp, swap;
+        n = order.length;
+        sorted = order;
+        tmp = new int[n];
+        for (int width = 1; width < n; width <<= 1) {
+            for (int lo = 0; lo < n; lo += width << 1) {
+                mid = Math.min(lo + width, n);
+                end = Math.min(lo + (width << 1), n);
+                left = lo;
+                right = mid;
+                k = lo;
+                while (left < mid && right < end) {
+                    if (decreasing ? keys[sorted[right]] > keys[sorted[left]] : keys[sorted[right]] < keys[sorted[left]]) {
+                        tmp[k++] = sorted[right++];
+                    } else {
+                        tmp[k++] = sorted[left++];
+                    }
+                }
+                while (left < mid) {
+                    tmp[k++] = sorted[left++];
+                }
+                while (right < end) {
+                    tmp[k++] = sorted[right++];
+                }
+            }
+            swap = sorted;
+            sorted = tmp;
+            tmp = swap;
+        }
+        if (sorted != order) {
+            System.arraycopy(sorted, 0, order, 0, n);
+        }
+        return order;
+    }
+
+}
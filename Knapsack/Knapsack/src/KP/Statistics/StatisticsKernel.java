@@ -0,0 +1,360 @@
+package KP.Statistics;
+
+/**
+ * Computes descriptive statistics over arrays of primitive values, with the same definitions as
+ * <code>Utils.Statistical</code>.
+ * <p>
+ * The median and the quartiles are found by quickselect (with a three-way partition, so repeated
+ * values cost nothing extra) on a copy of the values kept in a scratch buffer, which is reused by
+ * every call. Each one costs O(n) on average instead of sorting the values. The mean, the standard
+ * deviation and the correlation are computed over the arrays directly, adding the values in the
+ * same order as <code>Utils.Statistical</code>, so their results are exactly the same.
+ * <p>
+ * An instance of this class is not thread safe, since all the calls share the same buffer.
+ * <p>
+ * @version 1.0
+ */
+public class StatisticsKernel {
+
+    private double[] scratch;
+
+    /**
+     * Creates a new instance of <code>StatisticsKernel</code>.
+     */
+    public StatisticsKernel() {
+        scratch = new double[16];
+    }
+
+    /**
+     * Returns the statistics of the first values of an array. The sums and the largest value are
+     * computed in one pass, the standard deviation in a second one (as {@link #stdev(double[], int)}),
+     * and the median and both quartiles share a single copy of the values. All of them are exactly
+     * the same as those of <code>Utils.Statistical</code>.
+     * <p>
+     * @param values The values. The array is not modified nor kept by the result.
+     * @param length The number of values to use, from the start of the array.
+     * @return The statistics of the values.
+     */
+    public Summary summarize(double[] values, int length) {
+        double sum, sumOfSquares, max, median, lowerQuartile, upperQuartile;
+        sum = 0;
+        sumOfSquares = 0;
+        max = Double.MIN_VALUE;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+            sumOfSquares += values[i] * values[i];
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        if (length == 0) {
+            return new Snapshot(0, 0, 0, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        copy(values, length);
+        median = median(length);
+        upperQuartile = upperQuartile(length, median);
+        lowerQuartile = lowerQuartile(values, length, median);
+        return new Snapshot(length, sum, sumOfSquares, stdev(values, length), max, median, lowerQuartile, upperQuartile);
+    }
+
+    /**
+     * Returns the median of the first values of an array, as <code>Utils.Statistical.median</code>.
+     * <p>
+     * @param values The values. The array is not modified.
+     * @param length The number of values to use, from the start of the array.
+     * @return The median of the values, or <code>NaN</code> if there are none.
+     */
+    public double median(double[] values, int length) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        copy(values, length);
+        return median(length);
+    }
+
+    /**
+     * Returns the lower quartile of the first values of an array, as
+     * <code>Utils.Statistical.lowerQuartile</code>: the median of an array of length n / 2 + 1 that
+     * holds the values smaller than the median, the median itself and zeros in the remaining
+     * positions.
+     * <p>
+     * @param values The values. The array is not modified.
+     * @param length The number of values to use, from the start of the array.
+     * @return The lower quartile of the values, or <code>NaN</code> if there are none.
+     */
+    public double lowerQuartile(double[] values, int length) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        copy(values, length);
+        return lowerQuartile(values, length, median(length));
+    }
+
+    /**
+     * Returns the upper quartile of the first values of an array, as
+     * <code>Utils.Statistical.upperQuartile</code>: the median of the upper half of the sorted
+     * values, which also contains the median when the number of values is even.
+     * <p>
+     * @param values The values. The array is not modified.
+     * @param length The number of values to use, from the start of the array.
+     * @return The upper quartile of the values, or <code>NaN</code> if there are none.
+     */
+    public double upperQuartile(double[] values, int length) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        copy(values, length);
+        return upperQuartile(length, median(length));
+    }
+
+    /**
+     * Returns the mean of the first values of an array, as <code>Utils.Statistical.mean</code>.
+     * <p>
+     * @param values The values.
+     * @param length The number of values to use, from the start of the array.
+     * @return The mean of the values, or zero if there are none.
+     */
+    public static double mean(double[] values, int length) {
+        double sum;
+        if (length == 0) {
+            return 0;
+        }
+        sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum / length;
+    }
+
+    /**
+     * Returns the sample standard deviation of the first values of an array, as
+     * <code>Utils.Statistical.stdev</code> (with a second pass over the deviations from the mean).
+     * <p>
+     * @param values The values.
+     * @param length The number of values to use, from the start of the array.
+     * @return The sample standard deviation of the values, or zero if there are less than two.
+     */
+    public static double stdev(double[] values, int length) {
+        double mean, squares;
+        if (length <= 1) {
+            return 0;
+        }
+        mean = mean(values, length);
+        squares = 0;
+        for (int i = 0; i < length; i++) {
+            squares += Math.pow(values[i] - mean, 2.0);
+        }
+        return Math.sqrt(squares / (length - 1));
+    }
+
+    /**
+     * Returns the correlation between the first values of two arrays, as
+     * <code>Utils.Statistical.correlation</code>. All the sums are computed in one pass.
+     * <p>
+     * @param x The first values.
+     * @param y The second values.
+     * @param length The number of values to use, from the start of both arrays.
+     * @return The correlation between the values.
+     */
+    public static double correlation(double[] x, double[] y, int length) {
+        double sumXY, sumX, sumY, sumXX, sumYY;
+        sumXY = 0;
+        sumX = 0;
+        sumY = 0;
+        sumXX = 0;
+        sumYY = 0;
+        for (int i = 0; i < length; i++) {
+            sumXY += x[i] * y[i];
+            sumX += x[i];
+            sumY += y[i];
+            sumXX += Math.pow(x[i], 2.0);
+            sumYY += Math.pow(y[i], 2.0);
+        }
+        return (length * sumXY - sumX * sumY)
+                / (Math.sqrt(length * sumXX - Math.pow(sumX, 2.0)) * Math.sqrt(length * sumYY - Math.pow(sumY, 2.0)));
+    }
+
+    /**
+     * Copies the first values of an array to the scratch buffer, growing it if needed.
+     */
+    private void copy(double[] values, int length) {
+        if (scratch.length < length) {
+            scratch = new double[Math.max(length, 2 * scratch.length)];
+        }
+        System.arraycopy(values, 0, scratch, 0, length);
+    }
+
+    /**
+     * Returns the median of the first values of the scratch buffer, which are reordered.
+     */
+    private double median(int n) {
+        double upper;
+        upper = select(n, n / 2);
+        if (n % 2 == 1) {
+            return upper;
+        }
+        return (largest(n / 2) + upper) / 2.0;
+    }
+
+    /**
+     * Returns the upper quartile of the first values of the scratch buffer, which are reordered.
+     */
+    private double upperQuartile(int n, double median) {
+        int length;
+        length = n / 2 + 1;
+        if (length % 2 == 1) {
+            return upperSubsetValue(n, length / 2, median);
+        }
+        return (upperSubsetValue(n, length / 2 - 1, median) + upperSubsetValue(n, length / 2, median)) / 2.0;
+    }
+
+    /**
+     * Returns the j-th smallest value of the upper subset used by the upper quartile, selecting it
+     * among the first values of the scratch buffer.
+     */
+    private double upperSubsetValue(int n, int j, double median) {
+        if (n % 2 == 0) {
+            return j == 0 ? median : select(n, n / 2 + j - 1);
+        }
+        return select(n, n / 2 + j);
+    }
+
+    /**
+     * Returns the lower quartile of the first values of an array, given their median. The lower
+     * subset is built in the scratch buffer.
+     */
+    private double lowerQuartile(double[] values, int n, double median) {
+        int length, k;
+        length = n / 2 + 1;
+        k = 0;
+        for (int i = 0; i < n && k < length - 1; i++) {
+            if (values[i] < median) {
+                scratch[k++] = values[i];
+            }
+        }
+        scratch[k++] = median;
+        while (k < length) {
+            scratch[k++] = 0;
+        }
+        return median(length);
+    }
+
+    /**
+     * Moves the k-th smallest of the first n values of the scratch buffer to position k, with no
+     * larger value before it and no smaller value after it, and returns it.
+     */
+    private double select(int n, int k) {
+        int lo, hi, lt, gt, i;
+        double pivot, value;
+        lo = 0;
+        hi = n - 1;
+        while (lo < hi) {
+            pivot = medianOfThree(scratch[lo], scratch[(lo + hi) >>> 1], scratch[hi]);
+            lt = lo;
+            gt = hi;
+            i = lo;
+            while (i <= gt) {
+                value = scratch[i];
+                if (value < pivot) {
+                    scratch[i++] = scratch[lt];
+                    scratch[lt++] = value;
+                } else if (value > pivot) {
+                    scratch[i] = scratch[gt];
+                    scratch[gt--] = value;
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                break;
+            }
+        }
+        return scratch[k];
+    }
+
+    /**
+     * Returns the largest of the first n values of the scratch buffer.
+     */
+    private double largest(int n) {
+        double max;
+        max = scratch[0];
+        for (int i = 1; i < n; i++) {
+            if (scratch[i] > max) {
+                max = scratch[i];
+            }
+        }
+        return max;
+    }
+
+    private static double medianOfThree(double a, double b, double c) {
+        if (a < b) {
+            return b < c ? b : (a < c ? c : a);
+        }
+        return a < c ? a : (b < c ? c : b);
+    }
+
+    /**
+     * The statistics of a fixed set of values.
+     */
+    private static class Snapshot implements Summary {
+
+        private final int size;
+        private final double sum, sumOfSquares, stdev, max, median, lowerQuartile, upperQuartile;
+
+        Snapshot(int size, double sum, double sumOfSquares, double stdev, double max, double median, double lowerQuartile, double upperQuartile) {
+            this.size = size;
+            this.sum = sum;
+            this.sumOfSquares = sumOfSquares;
+            this.stdev = stdev;
+            this.max = max;
+            this.median = median;
+            this.lowerQuartile = lowerQuartile;
+            this.upperQuartile = upperQuartile;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public double sum() {
+            return sum;
+        }
+
+        @Override
+        public double sumOfSquares() {
+            return sumOfSquares;
+        }
+
+        @Override
+        public double stdev() {
+            return stdev;
+        }
+
+        @Override
+        public double max() {
+            return max;
+        }
+
+        @Override
+        public double median() {
+            return median;
+        }
+
+        @Override
+        public double lowerQuartile() {
+            return lowerQuartile;
+        }
+
+        @Override
+        public double upperQuartile() {
+            return upperQuartile;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package KP.Statistics;
+
+/**
+ * Provides the descriptive statistics of a set of values, following the definitions of
+ * <code>Utils.Statistical</code> for the median and the quartiles.
+ * <p>
+ * The mean and the standard deviation are computed from the sum and the sum of squares of the
+ * values, so every implementation that adds the values in the same order gives exactly the same
+ * results.
+ * <p>
+ * @version 1.0
+ */
+public interface Summary {
+
+    /**
+     * Returns the number of values in this set.
+     * <p>
+     * @return The number of values in this set.
+     */
+    int size();
+
+    /**
+     * Returns the sum of the values in this set.
+     * <p>
+     * @return The sum of the values in this set.
+     */
+    double sum();
+
+    /**
+     * Returns the sum of the squares of the values in this set.
+     * <p>
+     * @return The sum of the squares of the values in this set.
+     */
+    double sumOfSquares();
+
+    /**
+     * Returns the largest value in this set (as <code>Utils.Statistical.max</code>, never smaller
+     * than <code>Double.MIN_VALUE</code>).
+     * <p>
+     * @return The largest value in this set, or <code>NaN</code> if the set is empty.
+     */
+    double max();
+
+    /**
+     * Returns the median of the values in this set.
+     * <p>
+     * @return The median of the values in this set, or <code>NaN</code> if the set is empty.
+     */
+    double median();
+
+    /**
+     * Returns the lower quartile of the values in this set. As in <code>Utils.Statistical</code>,
+     * it is the median of an array of length n / 2 + 1 that holds the values smaller than the
+     * median, the median itself and zeros in the remaining positions.
+     * <p>
+     * @return The lower quartile of the values in this set, or <code>NaN</code> if the set is
+     * empty.
+     */
+    double lowerQuartile();
+
+    /**
+     * Returns the upper quartile of the values in this set. As in <code>Utils.Statistical</code>,
+     * it is the median of the upper half of the sorted values, which also contains the median when
+     * the number of values is even.
+     * <p>
+     * @return The upper quartile of the values in this set, or <code>NaN</code> if the set is
+     * empty.
+     */
+    double upperQuartile();
+
+    /**
+     * Returns the mean of the values in this set (zero if the set is empty).
+     * <p>
+     * @return The mean of the values in this set.
+     */
+    default double mean() {
+        if (size() == 0) {
+            return 0;
+        }
+        return sum() / size();
+    }
+
+    /**
+     * Returns the sample standard deviation of the values in this set (zero if the set contains
+     * less than two values).
+     * <p>
+     * @return The sample standard deviation of the values in this set.
+     */
+    default double stdev() {
+        double squares;
+        if (size() <= 1) {
+            return 0;
+        }
+        squares = sumOfSquares() - sum() * sum() / size();
+        return squares > 0 ? Math.sqrt(squares / (size() - 1)) : 0;
+    }
+
+}
@@ -1,19 +1,37 @@
 
 import KP.Item;
+import KP.Knapsack;
 import KP.Solvers.Constructive.ConstructiveSolver;
 import KP.KnapsackProblem;
+import KP.IO.ResultCache;
+import KP.Metrics.Metrics;
+import KP.Metrics.PhaseTimes;
+import KP.Metrics.PhaseTimes.Phase;
+import KP.Metrics.SolveRecorder;
 import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic;
 import KP.Solvers.Constructive.Heuristics.ConstructiveHeuristic.Heuristic;
+import KP.Solvers.Exact.BranchAndBoundSolver;
+import KP.Solvers.Exact.ParetoSolver;
+import KP.Solvers.Exact.Reduction;
 import KP.Solvers.HyperHeuristic.SampleHyperHeuristic;
-import Utils.Statistical;
+import KP.Statistics.OrderStatistics;
+import KP.Statistics.StatisticsKernel;
+import java.io.File;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.DoubleSupplier;
+import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.ToDoubleFunction;
 import java.util.stream.Collectors;
@@ -22,20 +40,142 @@ public class Run {
     
     public static int START = 0;
     public static int END = 14;
-    
+
+    /**
+     * The file that keeps the optimum and the results of the fixed heuristics of every instance
+     * between runs (the system property <code>knapsack.cache</code>), or <code>null</code> to
+     * compute them on every run.
+     */
+    public static final String CACHE = System.getProperty("knapsack.cache");
+
+    /**
+     * The version of the results kept in the cache. Change it whenever a method changes its
+     * results, so the results stored by earlier versions are not used.
+     */
+    public static final String RESULTS_VERSION = "1";
+
+    /**
+     * Whether the families of instances are also solved with the exact solvers to report their
+     * work (the system property <code>knapsack.exact</code>).
+     */
+    public static final boolean EXACT = Boolean.getBoolean("knapsack.exact");
+
+    /**
+     * The families of instances solved with the exact solvers, as paths relative to the folder of
+     * the instances plus the prefix of the names of their files.
+     */
+    public static final String[] FAMILIES = new String[]{
+        "Test I/GA-MaxDefault",
+        "Test I/GA-MaxProfit",
+        "Test I/GA-MaxProfitPerWeight",
+        "Test I/GA-MinWeight",
+        "Test II/UniCor",
+        "Test II/UniUncor"
+    };
+
     public static void main(String[] args) {
 //        System.out.println("Training...");
 //        run(0, 14);
         System.out.println("Testing...");
         run(0, 100);
+        if (EXACT) {
+            exact();
+        }
     }
-    
-    public static void run(int start, int end) {
-        String[] features, heuristics;
+
+    /**
+     * Solves every instance of the families with the exact solvers and prints the mean work per
+     * instance of each family: the nodes explored by branch and bound (and the largest number of
+     * any instance) and the nodes where its bound pruned a subtree, next to the cells of the
+     * dynamic programming table, and the states kept by the Pareto solver with the mean and the
+     * largest size of its frontier.
+     */
+    public static void exact() {
+        File folder;
+        File[] files;
+        long nodes, maxNodes, prunes, cells, states, frontiers, maxFrontier;
         KnapsackProblem problem;
-        ConstructiveSolver solver;
-        SampleHyperHeuristic hh;
+        BranchAndBoundSolver branchAndBound;
+        ParetoSolver pareto;
+        StringBuilder s = new StringBuilder();
+        StringBuilder p = new StringBuilder();
+        String ruler = String.join("", Collections.nCopies(80, "=")) + "\n";
+        s.append(ruler);
+        s.append(String.format("%46s\n", "EXACT SOLVERS"));
+        s.append(ruler);
+        s.append(String.format("%-24s %9s %12s %12s %12s %14s\n", "Family", "Instances", "B&B nodes", "(max)", "B&B prunes", "DP cells"));
+        for (String family : FAMILIES) {
+            folder = new File("../Instances/" + family).getParentFile();
+            final String prefix = new File(family).getName() + "_";
+            files = folder.listFiles((dir, name) -> name.startsWith(prefix));
+            if (files == null || files.length == 0) {
+                continue;
+            }
+            Arrays.sort(files);
+            nodes = 0;
+            maxNodes = 0;
+            prunes = 0;
+            cells = 0;
+            states = 0;
+            frontiers = 0;
+            maxFrontier = 0;
+            for (File file : files) {
+                problem = new KnapsackProblem(file.getPath());
+                branchAndBound = new BranchAndBoundSolver(problem);
+                branchAndBound.solve();
+                nodes += branchAndBound.getNodes();
+                maxNodes = Math.max(maxNodes, branchAndBound.getNodes());
+                prunes += branchAndBound.getPrunes();
+                cells += (long) problem.getNbItems() * (problem.getCapacity() + 1);
+                pareto = new ParetoSolver(problem);
+                pareto.solve();
+                states += pareto.getStates();
+                frontiers += pareto.getMaxFrontierSize();
+                maxFrontier = Math.max(maxFrontier, pareto.getMaxFrontierSize());
+            }
+            s.append(String.format("%-24s %9d %12.1f %12d %12.1f %14.1f\n",
+                    new File(family).getName(),
+                    files.length,
+                    nodes / (double) files.length,
+                    maxNodes,
+                    prunes / (double) files.length,
+                    cells / (double) files.length));
+            p.append(String.format("%-24s %9d %13.1f %12.1f %12d\n",
+                    new File(family).getName(),
+                    files.length,
+                    states / (double) files.length,
+                    frontiers / (double) files.length,
+                    maxFrontier));
+        }
+        s.append(ruler);
+        s.append(String.format("%-24s %9s %13s %12s %12s\n", "Family", "Instances", "Pareto states", "Frontier", "(max)"));
+        s.append(p);
+        s.append(ruler);
+        System.out.print(s);
+    }
+    
+    public static final String[] FEATURES = new String[]{
+        "NORM_MEAN_WEIGHT",
+        "NORM_MEDIAN_WEIGHT",
+        "NORM_STD_WEIGHT",
+        "NORM_MEAN_PROFIT",
+        "NORM_MEDIAN_PROFIT",
+        "NORM_STD_PROFIT",
+        "NORM_CORRELATION",
+        "LQ_PROFIT",
+        "LQ_WEIGHT",
+        "UQ_WEIGHT",
+        "UQ_PROFIT"
+    };
+
+    public static final String[] HEURISTICS = new String[]{
+        "DEFAULT",
+        "MIN_WEIGHT",
+        "MAX_PROFIT",
+        "MAX_PROFIT_PER_WEIGHT_UNIT"
+    };
 
+    public static void run(int start, int end) {
         ArrayList<KnapsackProblem> problems = new ArrayList();
 
         for (int index = start; index < end; index++) {
@@ -55,87 +195,23 @@ public class Run {
         }
         WinnerTable winners = new WinnerTable(problems.size());
 
-        List<NGKnapsack.Rule> rules = new ArrayList<>();
         System.out.printf("Instance Name    \t DP.    \t %s \t %s \t MAX_PpW \t %s \t %s\n",
                 Method.DEFAULT,
                 Method.MAX_PROFIT,
                 Method.MIN_WEIGHT,
                 Method.HR_HYPER);
 
-        for (KnapsackProblem p : problems) {
-            Map<Method, Double> results = new HashMap<>();
-
-            KnapsackProblem defProblem = p;
-            features = new String[]{
-                "NORM_MEAN_WEIGHT",
-                "NORM_MEDIAN_WEIGHT",
-                "NORM_STD_WEIGHT",
-                "NORM_MEAN_PROFIT",
-                "NORM_MEDIAN_PROFIT",
-                "NORM_STD_PROFIT",
-                "NORM_CORRELATION",
-                "LQ_PROFIT",
-                "LQ_WEIGHT",
-                "UQ_WEIGHT",
-                "UQ_PROFIT"
-            };
-            heuristics = new String[]{
-                "DEFAULT",
-                "MIN_WEIGHT",
-                "MAX_PROFIT",
-                "MAX_PROFIT_PER_WEIGHT_UNIT"
-            };
-            double profit;
-
-            profit = use(defProblem, Heuristic.DEFAULT);
-            results.put(Method.DEFAULT, profit);
-//            System.out.println("Profit with default: " + profit);
-
-            profit = use(defProblem, Heuristic.MIN_WEIGHT);
-            results.put(Method.MIN_WEIGHT, profit);
-//            System.out.println("Profit with min-weight: " + profit);
-
-            profit = use(defProblem, Heuristic.MAX_PROFIT);
-            results.put(Method.MAX_PROFIT, profit);
-//            System.out.println("Profit with max-profit: " + profit);
-
-            profit = use(defProblem, Heuristic.MAX_PROFIT_PER_WEIGHT_UNIT);
-            results.put(Method.MAX_PROFIT_PER_WEIGHT_UNIT, profit);
-//            System.out.println("Profit with max-profit/weight: " + profit);
-
-            hh = new SampleHyperHeuristic(features, heuristics);
-            solver = new ConstructiveSolver(defProblem);
-            profit = solver.solve(hh).getProfit();
-            results.put(Method.SIMPLE_HYPER, profit);
-//            System.out.println("Profit with hyper-heuristic: " + profit);
-
-            List<Item> items = Arrays.stream(defProblem.getItems()).collect(Collectors.toList());
-            List<NGKnapsack.NGItem> my_items = items.stream().map(i -> new NGKnapsack.NGItem(i.getProfit(), i.getWeight())).collect(Collectors.toList());
-            NGKnapsack kk = new NGKnapsack(my_items, defProblem.getCapacity());
-            kk.solve();
-            profit = kk.getTotalProfit();
-            results.put(Method.HR_HYPER, profit);
-            String instanceName = defProblem.getId();
-            System.out.printf("%s \t %.2f \t %.2f \t %.2f \t %.2f \t %.2f \t %.2f\n",
-                    instanceName,
-                    new ConstructiveSolver(defProblem).solve().getProfit(),
-                    results.get(Method.DEFAULT),
-                    results.get(Method.MAX_PROFIT),
-                    results.get(Method.MAX_PROFIT_PER_WEIGHT_UNIT),
-                    results.get(Method.MIN_WEIGHT),
-                    results.get(Method.HR_HYPER));
-            // Get Winner
-            // If there is a tie, then all get incremented
-            Optional<Double> winner = results.values().stream().max(Double::compare);
-            results.forEach((m, p2) -> {
-                if (p2.equals(winner.get())) {
-                    winners.setWinner(m);
-                }
-            });
-            winners.addRules(kk.getRules());
-        }
+        ResultCache cache = CACHE == null ? null : new ResultCache(CACHE, RESULTS_VERSION);
+        new BatchEngine(Runtime.getRuntime().availableProcessors(), cache).run(problems, winners);
 
         System.out.println(winners);
+        if (cache != null) {
+            System.out.printf("Cached results: %d used, %d computed, %d stored\n", cache.getHits(), cache.getMisses(), cache.getSize());
+            cache.close();
+        }
+        if (Metrics.isEnabled()) {
+            System.out.println(Metrics.report());
+        }
     }
 
     public enum Method {
@@ -147,11 +223,173 @@ public class Run {
         HR_HYPER
     }
 
+    /**
+     * Evaluates every method on a list of instances in parallel. Each (instance, method) pair is
+     * a separate task in a fork-join pool. Each instance is recorded in the (synchronized) winner
+     * table as soon as its tasks are done, and the results are printed in the order of the
+     * instances, so the output does not depend on the number of threads.
+     * <p>
+     * The optimum is found by dynamic programming over the items that {@link Reduction} cannot fix
+     * in or out of the solution, with the capacity they leave. The time of the reduction is part
+     * of the time of DP, as its own phase.
+     * <p>
+     * With a result cache, the optimum and the results of the fixed heuristics are taken from it
+     * when it has them (and stored in it otherwise), so only the hyper-heuristics run again. The
+     * cached methods have no phase times.
+     */
+    public static class BatchEngine {
+
+        private final int parallelism;
+        private final ResultCache cache;
+
+        public BatchEngine(int parallelism) {
+            this(parallelism, null);
+        }
+
+        public BatchEngine(int parallelism, ResultCache cache) {
+            this.parallelism = parallelism;
+            this.cache = cache;
+        }
+
+        public void run(List<KnapsackProblem> problems, WinnerTable winners) {
+            ForkJoinPool pool;
+            List<InstanceResult> results;
+            pool = new ForkJoinPool(parallelism);
+            try {
+                results = new ArrayList<>(problems.size());
+                for (KnapsackProblem problem : problems) {
+                    results.add(new InstanceResult(problem, pool, winners, cache));
+                }
+                for (InstanceResult result : results) {
+                    result.join();
+                    System.out.printf("%s \t %.2f \t %.2f \t %.2f \t %.2f \t %.2f \t %.2f\n",
+                            result.getId(),
+                            result.getOptimum(),
+                            result.get(Method.DEFAULT),
+                            result.get(Method.MAX_PROFIT),
+                            result.get(Method.MAX_PROFIT_PER_WEIGHT_UNIT),
+                            result.get(Method.MIN_WEIGHT),
+                            result.get(Method.HR_HYPER));
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        /**
+         * The results of all the methods on one instance. The instance is recorded in the winner
+         * table as soon as all of its tasks are done.
+         */
+        private static class InstanceResult {
+
+            private final String id;
+            private final CompletableFuture<Double> optimum;
+            private final Map<Method, CompletableFuture<Double>> profits;
+            private final CompletableFuture<NGKnapsack> hrHyper;
+            private final CompletableFuture<Void> done;
+            private final Map<String, PhaseTimes> times;
+
+            InstanceResult(KnapsackProblem problem, ForkJoinPool pool, WinnerTable winners, ResultCache cache) {
+                id = problem.getId();
+                times = new ConcurrentHashMap<>();
+                optimum = CompletableFuture.supplyAsync(() -> cached(cache, problem, "DP", () -> exact(problem)), pool);
+                profits = new EnumMap<>(Method.class);
+                profits.put(Method.DEFAULT, CompletableFuture.supplyAsync(() -> timed(cache, problem, Heuristic.DEFAULT), pool));
+                profits.put(Method.MIN_WEIGHT, CompletableFuture.supplyAsync(() -> timed(cache, problem, Heuristic.MIN_WEIGHT), pool));
+                profits.put(Method.MAX_PROFIT, CompletableFuture.supplyAsync(() -> timed(cache, problem, Heuristic.MAX_PROFIT), pool));
+                profits.put(Method.MAX_PROFIT_PER_WEIGHT_UNIT, CompletableFuture.supplyAsync(() -> timed(cache, problem, Heuristic.MAX_PROFIT_PER_WEIGHT_UNIT), pool));
+                profits.put(Method.SIMPLE_HYPER, CompletableFuture.supplyAsync(() -> timed(Method.SIMPLE_HYPER.toString(), new ConstructiveSolver(problem), s -> s.solve(new SampleHyperHeuristic(FEATURES, HEURISTICS))), pool));
+                hrHyper = CompletableFuture.supplyAsync(() -> {
+                    List<NGKnapsack.NGItem> items = Arrays.stream(problem.getItems()).map(i -> new NGKnapsack.NGItem(i.getProfit(), i.getWeight())).collect(Collectors.toList());
+                    NGKnapsack kk = new NGKnapsack(items, problem.getCapacity());
+                    kk.solve();
+                    times.put(Method.HR_HYPER.toString(), kk.getPhaseTimes());
+                    return kk;
+                }, pool);
+                profits.put(Method.HR_HYPER, hrHyper.thenApply(NGKnapsack::getTotalProfit));
+                done = CompletableFuture.allOf(profits.values().toArray(new CompletableFuture<?>[0]))
+                        .runAfterBoth(optimum, () -> record(winners));
+            }
+
+            /**
+             * Solves the instance with a heuristic (unless the cache has the result) and keeps the
+             * times of its phases.
+             */
+            private double timed(ResultCache cache, KnapsackProblem problem, Heuristic heuristic) {
+                return cached(cache, problem, heuristic.toString(), () -> timed(heuristic.toString(), new ConstructiveSolver(problem), s -> s.solve(new ConstructiveHeuristic(heuristic))));
+            }
+
+            /**
+             * Solves the instance exactly with dynamic programming, over the items that the
+             * reduction does not fix, and keeps the times of its phases, the reduction included.
+             */
+            private double exact(KnapsackProblem problem) {
+                double profit;
+                Reduction reduction;
+                reduction = new Reduction(problem);
+                profit = timed("DP", new ConstructiveSolver(reduction.getProblem()), s -> reduction.restore(s.solve()));
+                times.get("DP").add(Phase.REDUCTION, reduction.getNanos());
+                return profit;
+            }
+
+            /**
+             * Returns the result of a method from the cache, or computes it if there is no cache or
+             * it does not have the result.
+             */
+            private static double cached(ResultCache cache, KnapsackProblem problem, String method, DoubleSupplier solver) {
+                return cache == null ? solver.getAsDouble() : cache.get(problem, method, solver);
+            }
+
+            /**
+             * Solves the instance with the solver provided and keeps the times of its phases
+             * under the label provided.
+             */
+            private double timed(String label, ConstructiveSolver solver, Function<ConstructiveSolver, Knapsack> method) {
+                double profit;
+                profit = method.apply(solver).getProfit();
+                times.put(label, solver.getPhaseTimes());
+                return profit;
+            }
+
+            void join() {
+                optimum.join();
+                done.join();
+            }
+
+            /**
+             * Records the winners of this instance (all the methods tied with the best profit).
+             */
+            void record(WinnerTable winners) {
+                Optional<Double> winner = profits.values().stream().map(CompletableFuture::join).max(Double::compare);
+                profits.forEach((m, p) -> {
+                    if (p.join().equals(winner.get())) {
+                        winners.setWinner(m);
+                    }
+                });
+                winners.addRules(hrHyper.join().getRules());
+                times.forEach(winners::addTimes);
+            }
+
+            String getId() {
+                return id;
+            }
+
+            double getOptimum() {
+                return optimum.join();
+            }
+
+            double get(Method method) {
+                return profits.get(method).join();
+            }
+        }
+    }
+
     public static class WinnerTable {
 
         private final Map<Method, Integer> winners;
         private final int n;
         private ArrayList<NGKnapsack.Rule> rules;
+        private final Map<String, PhaseTimes> times;
 
         public WinnerTable(int n) {
             this.n = n;
@@ -161,27 +399,53 @@ public class Run {
                 winners.put(val, 0);
             }
             this.rules = new ArrayList<>();
+            this.times = new LinkedHashMap<>();
+            times.put("DP", new PhaseTimes());
+            for (Method val : vals) {
+                times.put(val.toString(), new PhaseTimes());
+            }
         }
 
-        public void setWinner(Method m) {
+        public synchronized void setWinner(Method m) {
             int times = winners.get(m);
             winners.put(m, times + 1);
         }
 
-        public void addRules(List<NGKnapsack.Rule> rules) {
+        public synchronized void addRules(List<NGKnapsack.Rule> rules) {
             this.rules.addAll(rules);
         }
 
+        /**
+         * Adds the times of the phases of one solve to the aggregate of its method.
+         * <p>
+         * @param method The method (the name of a <code>Method</code>, or DP for the optimum).
+         * @param phases The times of the phases of the solve.
+         */
+        public synchronized void addTimes(String method, PhaseTimes phases) {
+            times.computeIfAbsent(method, k -> new PhaseTimes()).add(phases);
+        }
+
+        /**
+         * Returns the times of the phases of a method, added over all the instances recorded.
+         * <p>
+         * @param method The method (the name of a <code>Method</code>, or DP for the optimum).
+         * @return The times of the phases of the method, or <code>null</code> if it is unknown.
+         */
+        public synchronized PhaseTimes getTimes(String method) {
+            PhaseTimes phases = times.get(method);
+            return phases == null ? null : new PhaseTimes(phases);
+        }
+
         public double getScore(Method m) {
             return getWins(m) * 100.0 / this.n;
         }
 
-        public int getWins(Method m) {
+        public synchronized int getWins(Method m) {
             return this.winners.get(m);
         }
 
         @Override
-        public String toString() {
+        public synchronized String toString() {
             StringBuilder s = new StringBuilder();
             String ruler = String.join("", Collections.nCopies(50, "=")) + "\n";
             DecimalFormat decim = new DecimalFormat("00.000");
@@ -213,6 +477,21 @@ public class Run {
                         decim.format(times * 100.0 / size)));
             }
             s.append(ruler);
+            s.append(String.format("%31s\n", "TIME PER METHOD"));
+            s.append(ruler);
+            for (Map.Entry<String, PhaseTimes> entry : this.times.entrySet()) {
+                PhaseTimes phases = entry.getValue();
+                if (phases.getCount() == 0) {
+                    continue;
+                }
+                s.append(String.format("%26s: %9.3f ms (%.3f ms per instance)\n%28s%s\n",
+                        entry.getKey(),
+                        phases.getTotal() / 1e6,
+                        phases.getTotal() / 1e6 / phases.getCount(),
+                        "",
+                        phases));
+            }
+            s.append(ruler);
             return s.toString();
         }
     }
@@ -267,8 +546,12 @@ public class Run {
         public List<NGItem> items;
         public List<NGItem> packedItems;
         public List<Rule> rules;
+        private final StatisticsKernel kernel;
+        private final PhaseTimes phases;
 
         public NGKnapsack(List<NGItem> items, double capacity) {
+            this.kernel = new StatisticsKernel();
+            this.phases = new PhaseTimes();
             this.rules = new ArrayList<>();
             this.capacity = capacity;
             this.items = items;
@@ -294,101 +577,287 @@ public class Run {
             return this.rules;
         }
 
+        /**
+         * Returns the times of the last solve: evaluating the rules (with the statistics and the
+         * removal of the items that do not fit) is item selection, and taking the selected items
+         * is packing.
+         */
+        public PhaseTimes getPhaseTimes() {
+            return new PhaseTimes(phases);
+        }
+
         public double getWeightSTD() {
-            return Statistical.stdev(getValues(NGItem::getWeight));
+            double[] values = getValues(NGItem::getWeight);
+            return StatisticsKernel.stdev(values, values.length);
         }
 
         public double getProfitSTD() {
-            return Statistical.stdev(getValues(NGItem::getProfit));
+            double[] values = getValues(NGItem::getProfit);
+            return StatisticsKernel.stdev(values, values.length);
         }
 
         public double getProfitMean() {
-            return Statistical.mean(getValues(NGItem::getProfit));
+            double[] values = getValues(NGItem::getProfit);
+            return StatisticsKernel.mean(values, values.length);
         }
         public double getProfitMedian() {
-            return Statistical.median(getValues(NGItem::getProfit));
+            double[] values = getValues(NGItem::getProfit);
+            return kernel.median(values, values.length);
         }
 
         public double getWeightMean() {
-            return Statistical.mean(getValues(NGItem::getWeight));
+            double[] values = getValues(NGItem::getWeight);
+            return StatisticsKernel.mean(values, values.length);
         }
 
         public double getWeightUpperQ() {
-            return Statistical.upperQuartile(getValues(NGItem::getWeight));
+            double[] values = getValues(NGItem::getWeight);
+            return kernel.upperQuartile(values, values.length);
         }
 
         public double getProfitUpperQ() {
-            return Statistical.upperQuartile(getValues(NGItem::getProfit));
+            double[] values = getValues(NGItem::getProfit);
+            return kernel.upperQuartile(values, values.length);
         }
 
         public double getWeightLowerQ() {
-            return Statistical.lowerQuartile(getValues(NGItem::getWeight));
+            double[] values = getValues(NGItem::getWeight);
+            return kernel.lowerQuartile(values, values.length);
         }
 
         public double getProfitLowerQ() {
-            return Statistical.lowerQuartile(getValues(NGItem::getProfit));
+            double[] values = getValues(NGItem::getProfit);
+            return kernel.lowerQuartile(values, values.length);
         }
 
         public double getTotalProfit() {
             return this.packedItems.stream().mapToDouble(NGItem::getProfit).sum();
         }
 
+        /**
+         * Packs the items following the rules (in this order): REMOVE the items that do not fit;
+         * RULE1 takes the most profitable item lighter than the lower quartile of the weights or
+         * the best profit per weight unit between the quartiles, whichever is more profitable;
+         * RULE2 takes the best profit per weight unit between the quartiles among the items more
+         * profitable than the mean plus one standard deviation; MAXPROFIT takes the most
+         * profitable item. Ties are broken in favor of the item that comes first in the list.
+         * <p>
+         * The items are copied to arrays and sorted once by weight, so the items that do not fit
+         * are always the heaviest ones and the candidates of RULE1 are ranges of that order. Two
+         * tournament trees over that order find the most profitable item and the best ratio of a
+         * range in O(log n), and the quartiles of the weights are kept by an
+         * <code>OrderStatistics</code>. The mean and the standard deviation of the profits are
+         * only needed by RULE2, so they are computed with the <code>StatisticsKernel</code>
+         * (exactly as <code>Utils.Statistical</code> does) only when that rule is evaluated.
+         */
         public void solve() {
-            int count = 0;
-            while (!items.isEmpty()) {
-                // Remove items that doesn't fit
-                int size = this.items.size();
-                this.items.removeIf(overweight(this.capacity));
-                if (this.items.size() != size) {
+            int n, remaining, heavy, low, high, i1, i2, selected;
+            int[] order;
+            double lowerQ_weight, upperQ_weight, threshold;
+            double[] weights, profits, ratios, sorted, remainingProfits;
+            boolean removed;
+            boolean[] done;
+            NGItem[] all;
+            OrderStatistics statistics;
+            ItemTree byProfit, byRatio;
+            long start;
+            SolveRecorder recorder;
+            recorder = Metrics.begin("NGKnapsack", null);
+            phases.clear();
+            start = System.nanoTime();
+            all = items.toArray(new NGItem[items.size()]);
+            n = all.length;
+            weights = new double[n];
+            profits = new double[n];
+            ratios = new double[n];
+            for (int i = 0; i < n; i++) {
+                weights[i] = all[i].getWeight();
+                profits[i] = all[i].getProfit();
+                ratios[i] = all[i].getRatio();
+            }
+            statistics = new OrderStatistics(weights);
+            order = new int[n];
+            sorted = new double[n];
+            for (int i = 0; i < n; i++) {
+                order[statistics.rank(i)] = i;
+                sorted[statistics.rank(i)] = weights[i];
+            }
+            byProfit = new ItemTree(order, profits);
+            byRatio = new ItemTree(order, ratios);
+            done = new boolean[n];
+            remainingProfits = new double[n];
+            remaining = n;
+            heavy = n;
+            while (remaining > 0) {
+                removed = false;
+                while (heavy > 0 && sorted[heavy - 1] > capacity) {
+                    heavy--;
+                    if (!done[order[heavy]]) {
+                        take(order[heavy], statistics, byProfit, byRatio, done);
+                        remaining--;
+                        removed = true;
+                    }
+                }
+                if (removed) {
                     rules.add(Rule.REMOVE);
                 }
-                if (this.items.isEmpty()) {
+                if (remaining == 0) {
                     break;
                 }
-
-                Optional<NGItem> selectedItem;
-                double mean_weight = getWeightMean();
-                double mean_profit = getProfitMean();
-                double median_profit = getProfitMedian();
-                double std_weight = getWeightSTD();
-                double std_profit = getProfitSTD();
-                double upperQ_weight = getWeightUpperQ();
-                double upperQ_profit = getProfitUpperQ();
-                double lowerQ_weight = getWeightLowerQ();
-                double lowerQ_profit = getProfitLowerQ();
-                
-                // RULE 2
-                Optional<NGItem> i1 = this.items.stream()
-                        .filter(NGKnapsack.lowWeight(lowerQ_weight))
-                        .max(NGKnapsack::maxProfit);
-                
-                Optional<NGItem> i2 = this.items.stream()
-                        .filter(NGKnapsack.weightIQR(lowerQ_weight, upperQ_weight))
-                        .max(NGKnapsack::maxProfitWeight);
-                if (i1.isPresent() && i2.isPresent()) {
-                    NGItem ii = i1.get().getProfit() >= i2.get().getProfit() ? i1.get() : i2.get();
-                    packItem(ii, Rule.RULE1);
+                lowerQ_weight = statistics.lowerQuartile();
+                upperQ_weight = statistics.upperQuartile();
+                low = firstAbove(sorted, lowerQ_weight, false);
+                high = firstAbove(sorted, upperQ_weight, true);
+                i1 = byProfit.best(0, low);
+                i2 = byRatio.best(low, high);
+                if (i1 >= 0 && i2 >= 0) {
+                    selected = profits[i1] >= profits[i2] ? i1 : i2;
+                    pack(selected, Rule.RULE1, all, statistics, byProfit, byRatio, done);
+                    remaining--;
                     continue;
                 }
+                selected = -1;
+                if (i2 >= 0) {
+                    threshold = profitThreshold(profits, done, remainingProfits);
+                    for (int k = low; k < high; k++) {
+                        if (!done[order[k]] && profits[order[k]] > threshold
+                                && (selected < 0 || ItemTree.better(ratios, order[k], selected))) {
+                            selected = order[k];
+                        }
+                    }
+                }
+                if (selected >= 0) {
+                    pack(selected, Rule.RULE2, all, statistics, byProfit, byRatio, done);
+                } else {
+                    pack(byProfit.best(0, n), Rule.MAXPROFIT, all, statistics, byProfit, byRatio, done);
+                }
+                remaining--;
+            }
+            phases.add(Phase.ITEM_SELECTION, System.nanoTime() - start - phases.getNanos(Phase.PACKING));
+            recorder.end();
+            items.clear();
+        }
 
-                /*
-                    RULE 1
-                    5. Si el valor es alto (mayor STD) y su peso se encuentra dentro de la (STD), agregar
-                        => IF W >= STD_PROFIT && LOWER_Q <= W <= UPPER_Q, GRAB MAXPROFIT_WEIGHT
-                 */
-                selectedItem = this.items.stream()
-                        .filter(NGKnapsack.highValue(mean_profit + std_profit))
-                        .filter(NGKnapsack.weightIQR(lowerQ_weight, upperQ_weight))
-                        .max(NGKnapsack::maxProfitWeight);
-
-                if (selectedItem.isPresent()) {
-                    packItem(selectedItem.get(), Rule.RULE2);
-                    continue;
+        private void pack(int i, Rule rule, NGItem[] all, OrderStatistics statistics, ItemTree byProfit, ItemTree byRatio, boolean[] done) {
+            long start;
+            start = System.nanoTime();
+            take(i, statistics, byProfit, byRatio, done);
+            packedItems.add(all[i]);
+            rules.add(rule);
+            capacity -= all[i].getWeight();
+            phases.add(Phase.PACKING, System.nanoTime() - start);
+        }
+
+        private static void take(int i, OrderStatistics statistics, ItemTree byProfit, ItemTree byRatio, boolean[] done) {
+            done[i] = true;
+            statistics.remove(i);
+            byProfit.remove(statistics.rank(i));
+            byRatio.remove(statistics.rank(i));
+        }
+
+        /**
+         * Returns the first position of the sorted weights above the value provided (or not
+         * below it, if <code>inclusive</code> is false). NaN is above every weight.
+         */
+        private static int firstAbove(double[] sorted, double value, boolean inclusive) {
+            int lo, hi, mid;
+            lo = 0;
+            hi = sorted.length;
+            while (lo < hi) {
+                mid = (lo + hi) >>> 1;
+                if (inclusive ? sorted[mid] <= value : sorted[mid] < value) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+
+        /**
+         * Returns the mean plus the standard deviation of the profits of the remaining items,
+         * copied to the buffer provided in the order of the list, as <code>Utils.Statistical</code>
+         * adds them, so the result is exactly the same.
+         */
+        private static double profitThreshold(double[] profits, boolean[] done, double[] buffer) {
+            int k;
+            k = 0;
+            for (int i = 0; i < profits.length; i++) {
+                if (!done[i]) {
+                    buffer[k++] = profits[i];
+                }
+            }
+            return StatisticsKernel.mean(buffer, k) + StatisticsKernel.stdev(buffer, k);
+        }
+
+        /**
+         * A tournament tree over the items sorted by weight. Every node keeps the item with the
+         * largest key of its range (as <code>Double.compare</code> orders them), or the first one
+         * in the list among equal keys, and -1 when its range is empty.
+         */
+        private static class ItemTree {
+
+            private final double[] keys;
+            private final int[] nodes;
+            private final int leaves;
+
+            ItemTree(int[] order, double[] keys) {
+                int size;
+                this.keys = keys;
+                size = 1;
+                while (size < order.length) {
+                    size <<= 1;
                 }
-                
-                NGItem iToPack = this.items.stream().max(NGKnapsack::maxProfit).get();
-                // Default: MAX PROFIT
-                packItem(iToPack, Rule.MAXPROFIT);
+                leaves = size;
+                nodes = new int[2 * size];
+                Arrays.fill(nodes, -1);
+                System.arraycopy(order, 0, nodes, size, order.length);
+                for (int k = size - 1; k > 0; k--) {
+                    nodes[k] = winner(nodes[2 * k], nodes[2 * k + 1]);
+                }
+            }
+
+            void remove(int position) {
+                int k;
+                k = position + leaves;
+                nodes[k] = -1;
+                for (k >>= 1; k > 0; k >>= 1) {
+                    nodes[k] = winner(nodes[2 * k], nodes[2 * k + 1]);
+                }
+            }
+
+            /**
+             * Returns the best item between the positions provided (the last one excluded), or -1
+             * if there is none.
+             */
+            int best(int from, int to) {
+                int result;
+                result = -1;
+                for (from += leaves, to += leaves; from < to; from >>= 1, to >>= 1) {
+                    if ((from & 1) == 1) {
+                        result = winner(result, nodes[from++]);
+                    }
+                    if ((to & 1) == 1) {
+                        result = winner(result, nodes[--to]);
+                    }
+                }
+                return result;
+            }
+
+            private int winner(int i, int j) {
+                if (i < 0) {
+                    return j;
+                }
+                if (j < 0) {
+                    return i;
+                }
+                return better(keys, j, i) ? j : i;
+            }
+
+            static boolean better(double[] keys, int i, int j) {
+                int c;
+                c = Double.compare(keys[i], keys[j]);
+                return c > 0 || (c == 0 && i < j);
             }
         }
 
@@ -0,0 +1,66 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import KP.Problems;
+import KP.Problems.Profits;
+import java.io.File;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the problems saved in the binary and the text formats are read back unchanged.
+ * <p>
+ * @version 1.0
+ */
+public class BinaryProblemFormatTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Checks that two problems have the same capacity, weights and profits.
+     */
+    static void assertSameProblem(KnapsackProblem expected, KnapsackProblem actual) {
+        assertEquals(expected.getCapacity(), actual.getCapacity());
+        assertArrayEquals(expected.getWeights(), actual.getWeights());
+        assertArrayEquals(expected.getProfits(), actual.getProfits(), 0);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Random random;
+        KnapsackProblem problem;
+        String fileName;
+        random = new Random(3);
+        for (int n : new int[]{0, 1, 2, 7, 100, 1000}) {
+            for (Profits profits : Profits.values()) {
+                problem = Problems.random(random, n, 1000, profits);
+                fileName = new File(folder.getRoot(), n + "_" + profits + ".kpb").getPath();
+                BinaryProblemFormat.save(problem, fileName);
+                assertSameProblem(problem, BinaryProblemFormat.load(fileName));
+            }
+        }
+    }
+
+    /**
+     * Saves the same problem in both formats; the text format keeps three decimals, which the
+     * random profits do not exceed.
+     */
+    @Test
+    public void testTextAndBinaryAgree() throws Exception {
+        KnapsackProblem problem;
+        String text, binary;
+        problem = Problems.random(new Random(5), 50, 1000, Profits.DECIMAL);
+        text = new File(folder.getRoot(), "problem.kp").getPath();
+        binary = new File(folder.getRoot(), "problem.kpb").getPath();
+        problem.save(text);
+        BinaryProblemFormat.save(new KnapsackProblem(text), binary);
+        assertSameProblem(problem, new KnapsackProblem(text));
+        assertSameProblem(problem, BinaryProblemFormat.load(binary));
+    }
+
+}
@@ -0,0 +1,93 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import KP.Problems;
+import KP.Problems.Profits;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the problems packed into an archive are read back unchanged.
+ * <p>
+ * @version 1.0
+ */
+public class ProblemArchiveTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Returns random problems of several sizes, each one with a different identifier.
+     */
+    private static List<KnapsackProblem> problems() {
+        Random random;
+        KnapsackProblem problem;
+        List<KnapsackProblem> problems;
+        random = new Random(11);
+        problems = new ArrayList<>();
+        for (int n : new int[]{0, 1, 3, 20, 50, 500}) {
+            problem = Problems.random(random, n, 1000, Profits.values()[problems.size() % Profits.values().length]);
+            problems.add(new KnapsackProblem(problem.getWeights(), problem.getProfits(), problem.getCapacity(), "problem_" + n + ".kp"));
+        }
+        return problems;
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        List<KnapsackProblem> problems;
+        List<String> names;
+        String fileName;
+        problems = problems();
+        names = new ArrayList<>();
+        fileName = new File(folder.getRoot(), "problems.kpa").getPath();
+        ProblemArchive.pack(problems, fileName);
+        try (ProblemArchive archive = new ProblemArchive(fileName)) {
+            assertEquals(problems.size(), archive.getSize());
+            for (KnapsackProblem problem : problems) {
+                names.add(problem.getId());
+                assertTrue(archive.contains(problem.getId()));
+                assertEquals(problem.getId(), archive.get(problem.getId()).getId());
+                BinaryProblemFormatTest.assertSameProblem(problem, archive.get(problem.getId()));
+            }
+            assertEquals(names, archive.getNames());
+            assertFalse(archive.contains("missing.kp"));
+        }
+    }
+
+    /**
+     * Packs a folder of text files and unpacks the archive into another folder.
+     */
+    @Test
+    public void testPackAndUnpackFolders() throws Exception {
+        File in, out;
+        String fileName;
+        List<KnapsackProblem> problems;
+        in = folder.newFolder("in");
+        out = folder.newFolder("out");
+        fileName = new File(folder.getRoot(), "problems.kpa").getPath();
+        problems = problems();
+        for (KnapsackProblem problem : problems) {
+            if (problem.getNbItems() > 0) {
+                problem.save(new File(in, problem.getId()).getPath());
+            }
+        }
+        ProblemArchive.pack(in.getPath(), fileName);
+        ProblemArchive.unpack(fileName, out.getPath());
+        for (KnapsackProblem problem : problems) {
+            if (problem.getNbItems() > 0) {
+                BinaryProblemFormatTest.assertSameProblem(problem, new KnapsackProblem(new File(out, problem.getId()).getPath()));
+            }
+        }
+        assertEquals(Arrays.asList(in.list()).size(), out.list().length);
+    }
+
+}
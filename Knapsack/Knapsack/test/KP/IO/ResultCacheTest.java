@@ -0,0 +1,150 @@
+package KP.IO;
+
+import KP.KnapsackProblem;
+import KP.Problems;
+import KP.Problems.Profits;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks that the results stored in a cache are found again after it is closed and opened.
+ * <p>
+ * @version 1.0
+ */
+public class ResultCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String fileName;
+    private KnapsackProblem[] problems;
+
+    @Before
+    public void setUp() {
+        Random random;
+        fileName = new File(folder.getRoot(), "results.kprc").getPath();
+        random = new Random(13);
+        problems = new KnapsackProblem[20];
+        for (int i = 0; i < problems.length; i++) {
+            problems[i] = Problems.random(random, 10 + i, 100, Profits.DECIMAL);
+        }
+    }
+
+    /**
+     * Stores a result of two methods for every problem.
+     */
+    private void fill(ResultCache cache) {
+        for (int i = 0; i < problems.length; i++) {
+            cache.put(problems[i], "DEFAULT", i);
+            cache.put(problems[i], "DP", i + 0.5);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() {
+        try (ResultCache cache = new ResultCache(fileName, "1")) {
+            fill(cache);
+            assertEquals(2 * problems.length, cache.getSize());
+        }
+        try (ResultCache cache = new ResultCache(fileName, "1")) {
+            assertEquals(2 * problems.length, cache.getSize());
+            for (int i = 0; i < problems.length; i++) {
+                assertEquals(i, cache.get(problems[i], "DEFAULT"), 0);
+                assertEquals(i + 0.5, cache.get(problems[i], "DP"), 0);
+            }
+            assertNull(cache.get(problems[0], "MIN_WEIGHT"));
+            assertEquals(2 * problems.length, cache.getHits());
+            assertEquals(1, cache.getMisses());
+        }
+    }
+
+    /**
+     * The key is the content of the problem, so a copy with another identifier finds the result.
+     */
+    @Test
+    public void testKeyIsTheContent() {
+        KnapsackProblem copy;
+        copy = new KnapsackProblem(problems[3].getWeights().clone(), problems[3].getProfits().clone(), problems[3].getCapacity(), "copy");
+        try (ResultCache cache = new ResultCache(fileName, "1")) {
+            fill(cache);
+            assertEquals(ResultCache.fingerprint(problems[3]), ResultCache.fingerprint(copy));
+            assertEquals(3, cache.get(copy, "DEFAULT"), 0);
+        }
+    }
+
+    @Test
+    public void testAnotherVersionDiscardsTheResults() {
+        try (ResultCache cache = new ResultCache(fileName, "1")) {
+            fill(cache);
+        }
+        try (ResultCache cache = new ResultCache(fileName, "2")) {
+            assertEquals(0, cache.getSize());
+            cache.put(problems[0], "DEFAULT", 7);
+        }
+        try (ResultCache cache = new ResultCache(fileName, "2")) {
+            assertEquals(1, cache.getSize());
+            assertEquals(7, cache.get(problems[0], "DEFAULT"), 0);
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (ResultCache cache = new ResultCache(fileName, 10, "1")) {
+            fill(cache);
+            assertEquals(10, cache.getSize());
+            assertNull(cache.get(problems[0], "DEFAULT"));
+            assertEquals(problems.length - 1 + 0.5, cache.get(problems[problems.length - 1], "DP"), 0);
+        }
+        try (ResultCache cache = new ResultCache(fileName, 10, "1")) {
+            assertEquals(10, cache.getSize());
+            assertEquals(problems.length - 1 + 0.5, cache.get(problems[problems.length - 1], "DP"), 0);
+        }
+    }
+
+    /**
+     * Cuts the last record of the log, as an interrupted run would, and checks that only that
+     * result is lost.
+     */
+    @Test
+    public void testPartialRecordIsDiscarded() throws Exception {
+        ResultCache cache;
+        cache = new ResultCache(fileName, "1");
+        fill(cache);
+        /*
+         * The results were appended and not used, so closing does not rewrite the log.
+         */
+        cache.close();
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+        try (ResultCache reopened = new ResultCache(fileName, "1")) {
+            assertEquals(2 * problems.length - 1, reopened.getSize());
+            assertNull(reopened.get(problems[problems.length - 1], "DP"));
+            assertEquals(problems.length - 1, reopened.get(problems[problems.length - 1], "DEFAULT"), 0);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testGetAfterClose() {
+        ResultCache cache;
+        cache = new ResultCache(fileName, "1");
+        cache.close();
+        cache.get(problems[0], "DEFAULT");
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testPutAfterClose() {
+        ResultCache cache;
+        cache = new ResultCache(fileName, "1");
+        cache.close();
+        cache.put(problems[0], "DEFAULT", 1);
+    }
+
+}
@@ -0,0 +1,149 @@
+package KP;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Provides small random instances of the knapsack problem and their optima, found by trying every
+ * subset of the items, to check the solvers.
+ * <p>
+ * @version 1.0
+ */
+public class Problems {
+
+    /**
+     * The largest difference allowed between two profits that should be equal.
+     */
+    public static final double TOLERANCE = 1e-6;
+
+    /**
+     * Defines how the profits of a random instance are chosen.
+     */
+    public enum Profits {
+
+        /**
+         * Integer profits unrelated to the weights.
+         */
+        INTEGER,
+        /**
+         * Profits with three decimals (as in the text files) unrelated to the weights.
+         */
+        DECIMAL,
+        /**
+         * Integer profits close to the weights.
+         */
+        CORRELATED,
+        /**
+         * Profits equal to twice the weights.
+         */
+        PROPORTIONAL
+
+    }
+
+    /**
+     * Creates a random instance of the knapsack problem. The capacity is a random fraction of the
+     * sum of the weights, so some instances have a capacity of zero or larger than all the items
+     * together.
+     * <p>
+     * @param random The generator of the random numbers.
+     * @param nbItems The number of items.
+     * @param maxWeight The largest weight of an item.
+     * @param profits How the profits are chosen.
+     * @return The random instance.
+     */
+    public static KnapsackProblem random(Random random, int nbItems, int maxWeight, Profits profits) {
+        int sum;
+        int[] weights;
+        double[] values;
+        weights = new int[nbItems];
+        values = new double[nbItems];
+        sum = 0;
+        for (int i = 0; i < nbItems; i++) {
+            weights[i] = 1 + random.nextInt(maxWeight);
+            switch (profits) {
+                case INTEGER:
+                    values[i] = random.nextInt(100);
+                    break;
+                case DECIMAL:
+                    values[i] = random.nextInt(100000) / 1000.0;
+                    break;
+                case CORRELATED:
+                    values[i] = weights[i] + random.nextInt(10);
+                    break;
+                default:
+                    values[i] = 2 * weights[i];
+                    break;
+            }
+            sum += weights[i];
+        }
+        return new KnapsackProblem(weights, values, (int) (sum * random.nextDouble() * 1.1), profits + "_" + nbItems);
+    }
+
+    /**
+     * Returns the profit of an optimal solution, found by trying every subset of the items.
+     * <p>
+     * @param problem The instance of the knapsack problem, with at most 20 items.
+     * @return The profit of an optimal solution.
+     */
+    public static double optimum(KnapsackProblem problem) {
+        int n, weight;
+        double profit, best;
+        n = problem.getNbItems();
+        best = 0;
+        for (int subset = 0; subset < 1 << n; subset++) {
+            weight = 0;
+            profit = 0;
+            for (int i = 0; i < n; i++) {
+                if ((subset & 1 << i) != 0) {
+                    weight += problem.getWeights()[i];
+                    profit += problem.getProfits()[i];
+                }
+            }
+            if (weight <= problem.getCapacity() && profit > best) {
+                best = profit;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks that a knapsack is a solution of the problem: its items are distinct items of the
+     * problem that fit together, and its profit and capacity agree with them.
+     * <p>
+     * @param problem The instance of the knapsack problem.
+     * @param knapsack The knapsack to check.
+     */
+    public static void assertFeasible(KnapsackProblem problem, Knapsack knapsack) {
+        int weight;
+        double profit;
+        Set<Integer> ids;
+        ids = new HashSet<>();
+        weight = 0;
+        profit = 0;
+        for (Item item : knapsack.getItems()) {
+            assertTrue("Item " + item.getId() + " is not an item of the problem.", item.getId() >= 0 && item.getId() < problem.getNbItems());
+            assertTrue("Item " + item.getId() + " is packed twice.", ids.add(item.getId()));
+            assertEquals(problem.getWeights()[item.getId()], item.getWeight());
+            weight += item.getWeight();
+            profit += item.getProfit();
+        }
+        assertTrue("The items weigh " + weight + " (the capacity is " + problem.getCapacity() + ").", weight <= problem.getCapacity());
+        assertEquals(problem.getCapacity() - weight, knapsack.getCapacity());
+        assertEquals(profit, knapsack.getProfit(), TOLERANCE);
+    }
+
+    /**
+     * Checks that a knapsack is an optimal solution of the problem.
+     * <p>
+     * @param problem The instance of the knapsack problem, with at most 20 items.
+     * @param knapsack The knapsack to check.
+     */
+    public static void assertOptimal(KnapsackProblem problem, Knapsack knapsack) {
+        assertFeasible(problem, knapsack);
+        assertEquals(optimum(problem), knapsack.getProfit(), TOLERANCE);
+    }
+
+}
@@ -0,0 +1,140 @@
+package KP.Solvers.Constructive;
+
+import KP.Knapsack;
+import KP.KnapsackProblem;
+import KP.Problems;
+import KP.Problems.Profits;
+import KP.Solvers.Constructive.ConstructiveSolver.DynamicProgramming;
+import KP.Solvers.Exact.BranchAndBoundSolver;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the dynamic programming methods of <code>ConstructiveSolver</code> against the optima of
+ * small random instances found by brute force, and against branch and bound on larger ones.
+ * <p>
+ * @version 1.0
+ */
+public class DynamicProgrammingTest {
+
+    private static final int NB_PROBLEMS = 100;
+
+    /**
+     * Returns random instances with 1 to 16 items and the profits provided.
+     */
+    private static KnapsackProblem[] problems(Profits profits, long seed) {
+        Random random;
+        KnapsackProblem[] problems;
+        random = new Random(seed);
+        problems = new KnapsackProblem[NB_PROBLEMS];
+        for (int i = 0; i < problems.length; i++) {
+            problems[i] = Problems.random(random, 1 + random.nextInt(16), 1 + random.nextInt(50), profits);
+        }
+        return problems;
+    }
+
+    /**
+     * Checks that the method provided solves every instance with the profits provided optimally.
+     */
+    private static void assertSolves(DynamicProgramming method, Profits... kinds) {
+        for (Profits profits : kinds) {
+            for (KnapsackProblem problem : problems(profits, method.ordinal())) {
+                Problems.assertOptimal(problem, new ConstructiveSolver(problem).solve(method));
+            }
+        }
+    }
+
+    @Test
+    public void testTable() {
+        assertSolves(DynamicProgramming.TABLE, Profits.values());
+    }
+
+    @Test
+    public void testLinearSpace() {
+        assertSolves(DynamicProgramming.LINEAR_SPACE, Profits.values());
+    }
+
+    @Test
+    public void testProfitIndexed() {
+        assertSolves(DynamicProgramming.PROFIT_INDEXED, Profits.INTEGER, Profits.CORRELATED, Profits.PROPORTIONAL);
+    }
+
+    @Test
+    public void testSubsetSum() {
+        assertSolves(DynamicProgramming.SUBSET_SUM, Profits.PROPORTIONAL);
+    }
+
+    @Test
+    public void testAutomatic() {
+        assertSolves(DynamicProgramming.AUTOMATIC, Profits.values());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProfitIndexedRejectsDecimalProfits() {
+        KnapsackProblem problem;
+        problem = new KnapsackProblem(new int[]{1, 2}, new double[]{1.5, 2}, 2, "decimal");
+        new ConstructiveSolver(problem).solve(DynamicProgramming.PROFIT_INDEXED);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubsetSumRejectsUnrelatedProfits() {
+        KnapsackProblem problem;
+        problem = new KnapsackProblem(new int[]{1, 2}, new double[]{3, 2}, 2, "unrelated");
+        new ConstructiveSolver(problem).solve(DynamicProgramming.SUBSET_SUM);
+    }
+
+    /**
+     * Solves larger instances, where the linear space methods split the items several times, and
+     * compares every method with branch and bound.
+     */
+    @Test
+    public void testLargerInstances() {
+        Random random;
+        KnapsackProblem problem;
+        Knapsack knapsack;
+        double optimum;
+        random = new Random(1);
+        for (int i = 0; i < 40; i++) {
+            problem = Problems.random(random, 20 + random.nextInt(60), 1 + random.nextInt(1000), Profits.values()[i % Profits.values().length]);
+            optimum = new BranchAndBoundSolver(problem).solve().getProfit();
+            for (DynamicProgramming method : DynamicProgramming.values()) {
+                if (method == DynamicProgramming.PROFIT_INDEXED && i % Profits.values().length == Profits.DECIMAL.ordinal()
+                        || method == DynamicProgramming.SUBSET_SUM && i % Profits.values().length != Profits.PROPORTIONAL.ordinal()) {
+                    continue;
+                }
+                knapsack = new ConstructiveSolver(problem).solve(method);
+                Problems.assertFeasible(problem, knapsack);
+                assertEquals(method + " on " + problem.getId(), optimum, knapsack.getProfit(), Problems.TOLERANCE);
+            }
+        }
+    }
+
+    /**
+     * Checks that the approximation scheme loses at most epsilon times the optimum.
+     */
+    @Test
+    public void testApproximation() {
+        Knapsack knapsack;
+        double optimum;
+        for (double epsilon : new double[]{0.5, 0.1, 0.01}) {
+            for (Profits profits : Profits.values()) {
+                for (KnapsackProblem problem : problems(profits, 7)) {
+                    knapsack = new ConstructiveSolver(problem).solve(epsilon);
+                    optimum = Problems.optimum(problem);
+                    Problems.assertFeasible(problem, knapsack);
+                    assertTrue(knapsack.getProfit() >= (1 - epsilon) * optimum - Problems.TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApproximationRejectsEpsilon() {
+        KnapsackProblem problem;
+        problem = new KnapsackProblem(new int[]{1}, new double[]{1}, 1, "epsilon");
+        new ConstructiveSolver(problem).solve(1.0);
+    }
+
+}
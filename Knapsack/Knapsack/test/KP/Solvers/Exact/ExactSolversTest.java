@@ -0,0 +1,86 @@
+package KP.Solvers.Exact;
+
+import KP.KnapsackProblem;
+import KP.Problems;
+import KP.Problems.Profits;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the exact solvers against the optima of small random instances found by brute force.
+ * <p>
+ * @version 1.0
+ */
+public class ExactSolversTest {
+
+    private static final int NB_PROBLEMS = 200;
+
+    /**
+     * Returns the random instances solved by every test: instances with 1 to 16 items of every
+     * kind of profits, including instances where no item fits or every item fits.
+     */
+    private static KnapsackProblem[] problems() {
+        Random random;
+        KnapsackProblem[] problems;
+        random = new Random(42);
+        problems = new KnapsackProblem[NB_PROBLEMS];
+        for (int i = 0; i < problems.length; i++) {
+            problems[i] = Problems.random(random, 1 + random.nextInt(16), 1 + random.nextInt(50), Profits.values()[i % Profits.values().length]);
+        }
+        return problems;
+    }
+
+    @Test
+    public void testBranchAndBound() {
+        for (KnapsackProblem problem : problems()) {
+            Problems.assertOptimal(problem, new BranchAndBoundSolver(problem).solve());
+        }
+    }
+
+    @Test
+    public void testPareto() {
+        for (KnapsackProblem problem : problems()) {
+            Problems.assertOptimal(problem, new ParetoSolver(problem).solve());
+        }
+    }
+
+    @Test
+    public void testExpandingCore() {
+        for (KnapsackProblem problem : problems()) {
+            Problems.assertOptimal(problem, new ExpandingCoreSolver(problem).solve());
+        }
+    }
+
+    @Test
+    public void testMeetInTheMiddle() {
+        for (KnapsackProblem problem : problems()) {
+            Problems.assertOptimal(problem, new MeetInTheMiddleSolver(problem).solve());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testMeetInTheMiddleTooManyStates() {
+        KnapsackProblem problem;
+        problem = Problems.random(new Random(7), 16, 50, Profits.DECIMAL);
+        new MeetInTheMiddleSolver(new KnapsackProblem(problem.getWeights(), problem.getProfits(), 1000, problem.getId()), 2).solve();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMeetInTheMiddleTooManyItems() {
+        KnapsackProblem problem;
+        problem = Problems.random(new Random(7), MeetInTheMiddleSolver.MAX_ITEMS + 1, 50, Profits.CORRELATED);
+        new MeetInTheMiddleSolver(new KnapsackProblem(problem.getWeights(), problem.getProfits(), 1 << 20, problem.getId())).solve();
+    }
+
+    @Test
+    public void testReduction() {
+        Reduction reduction;
+        for (KnapsackProblem problem : problems()) {
+            reduction = new Reduction(problem);
+            assertTrue(reduction.getLowerBound() <= Problems.optimum(problem) + Problems.TOLERANCE);
+            Problems.assertOptimal(problem, reduction.solve(residual -> new BranchAndBoundSolver(residual).solve()));
+        }
+    }
+
+}